@@ -1,13 +1,52 @@
 package com.pci.hjmos.cache.config;
 
+import com.pci.hjmos.cache.listener.KeyspaceInvalidationListener;
+import com.pci.hjmos.cache.listener.LoadCompletionListener;
+import com.pci.hjmos.cache.localCache.ConcurrentHashMapCacheUtils;
+import com.pci.hjmos.cache.localCache.LocalCache;
+import com.pci.hjmos.cache.localCache.Weigher;
+import com.pci.hjmos.cache.service.impl.DriverCommands;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Properties;
+
 @Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+@Log4j2
 public class CacheConfig {
 
     // 通过配置中心方式，先注释
@@ -17,14 +56,160 @@ public class CacheConfig {
     @Value("${spring.redis.port}")
     int port;
 
+    @Autowired
+    CacheProperties cacheProperties;
+
+    @Autowired(required = false)
+    Weigher weigher;
+
+    /**
+     * 按配置调整本地缓存容量和淘汰策略，配置了最大权重但没有注册 Weigher 时按估算的字节数计算权重
+     */
+    @PostConstruct
+    public void initLocalCache() {
+        CacheProperties.Local local = cacheProperties.getLocal();
+        Weigher localWeigher = weigher;
+        if (localWeigher == null && local.getMaximumWeight() > 0) {
+            localWeigher = Weigher.estimatedBytes();
+        }
+        ConcurrentHashMapCacheUtils.setCapacity(local.getMaximumSize(), local.getMaximumWeight(), localWeigher);
+        ConcurrentHashMapCacheUtils.setEvictionPolicy(local.getEvictionPolicy());
+        LocalCache.setCapacity(local.getMaximumSize(), local.getMaximumWeight(), localWeigher);
+        LocalCache.setEvictionPolicy(local.getEvictionPolicy());
+    }
+
     @Bean(name = "defaultSerializer")
     public DefaultSerializer defaultSerializer() {
         return new DefaultSerializer();
     }
 
+    /**
+     * 缓存值序列化器，按 hjmos.cache.serializer.type 选择，开启压缩时外层再包一层 CompressingRedisSerializer
+     * 压缩包装始终存在，关闭压缩时阈值取最大值，只负责读取之前压缩写入的值
+     */
+    @Bean(name = "cacheValueSerializer")
+    public RedisSerializer<Object> cacheValueSerializer(DefaultSerializer defaultSerializer) {
+        CacheProperties.Serializer serializer = cacheProperties.getSerializer();
+        RedisSerializer<Object> valueSerializer;
+        switch (serializer.getType()) {
+            case KRYO:
+                valueSerializer = new KryoRedisSerializer(serializer.getRegisteredClasses(), serializer.getAllowedPackages());
+                break;
+            case TYPED_JSON:
+                valueSerializer = new TypedJsonRedisSerializer(serializer.getRegisteredClasses());
+                break;
+            default:
+                valueSerializer = defaultSerializer;
+        }
+        CacheProperties.Compression compression = serializer.getCompression();
+        int threshold = compression.isEnabled() ? compression.getThreshold() : Integer.MAX_VALUE;
+        return new CompressingRedisSerializer(valueSerializer, threshold);
+    }
+
+    /**
+     * Lettuce 的 IO 线程和计算线程，所有连接工厂共用
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ClientResources lettuceClientResources() {
+        return clientResources(cacheProperties.getConnection());
+    }
+
+    /**
+     * 显式创建 Lettuce 连接工厂，替代 Spring Boot 自动配置的连接工厂
+     * 地址、密码、数据库、集群和哨兵节点取 spring.redis，超时、TCP 参数、共用连接与连接池取 hjmos.cache.connection
+     */
+    @Bean
+    public LettuceConnectionFactory redisConnectionFactory(RedisProperties redisProperties, ClientResources lettuceClientResources) {
+        return lettuceConnectionFactory(redisProperties, cacheProperties.getConnection(), lettuceClientResources);
+    }
+
+    static ClientResources clientResources(CacheProperties.Connection connection) {
+        DefaultClientResources.Builder builder = DefaultClientResources.builder();
+        if (connection.getIoThreads() > 0) {
+            builder.ioThreadPoolSize(connection.getIoThreads());
+        }
+        if (connection.getComputationThreads() > 0) {
+            builder.computationThreadPoolSize(connection.getComputationThreads());
+        }
+        return builder.build();
+    }
+
+    static LettuceConnectionFactory lettuceConnectionFactory(RedisProperties redisProperties, CacheProperties.Connection connection,
+                                                             ClientResources clientResources) {
+        boolean cluster = redisProperties.getCluster() != null;
+        SocketOptions socketOptions = SocketOptions.builder()
+                .connectTimeout(connection.getConnectTimeout())
+                .keepAlive(connection.isKeepAlive())
+                .tcpNoDelay(connection.isTcpNoDelay())
+                .build();
+        ClientOptions clientOptions = cluster
+                ? ClusterClientOptions.builder().socketOptions(socketOptions).build()
+                : ClientOptions.builder().socketOptions(socketOptions).build();
+
+        Duration commandTimeout = connection.getCommandTimeout() != null ? connection.getCommandTimeout() : redisProperties.getTimeout();
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder builder;
+        if (connection.isPooled()) {
+            builder = LettucePoolingClientConfiguration.builder().poolConfig(poolConfig(connection.getPool()));
+        } else {
+            builder = LettuceClientConfiguration.builder();
+        }
+        if (redisProperties.isSsl()) {
+            builder.useSsl();
+        }
+        if (commandTimeout != null) {
+            builder.commandTimeout(commandTimeout);
+        }
+        LettuceClientConfiguration clientConfiguration = builder
+                .shutdownTimeout(connection.getShutdownTimeout())
+                .clientResources(clientResources)
+                .clientOptions(clientOptions)
+                .build();
+
+        LettuceConnectionFactory factory;
+        if (cluster) {
+            RedisClusterConfiguration clusterConfiguration = new RedisClusterConfiguration(redisProperties.getCluster().getNodes());
+            if (redisProperties.getCluster().getMaxRedirects() != null) {
+                clusterConfiguration.setMaxRedirects(redisProperties.getCluster().getMaxRedirects());
+            }
+            clusterConfiguration.setPassword(RedisPassword.of(redisProperties.getPassword()));
+            factory = new LettuceConnectionFactory(clusterConfiguration, clientConfiguration);
+        } else if (redisProperties.getSentinel() != null) {
+            RedisSentinelConfiguration sentinelConfiguration = new RedisSentinelConfiguration(redisProperties.getSentinel().getMaster(),
+                    new HashSet<>(redisProperties.getSentinel().getNodes()));
+            sentinelConfiguration.setPassword(RedisPassword.of(redisProperties.getPassword()));
+            sentinelConfiguration.setDatabase(redisProperties.getDatabase());
+            factory = new LettuceConnectionFactory(sentinelConfiguration, clientConfiguration);
+        } else {
+            RedisStandaloneConfiguration standaloneConfiguration = new RedisStandaloneConfiguration(redisProperties.getHost(), redisProperties.getPort());
+            standaloneConfiguration.setPassword(RedisPassword.of(redisProperties.getPassword()));
+            standaloneConfiguration.setDatabase(redisProperties.getDatabase());
+            factory = new LettuceConnectionFactory(standaloneConfiguration, clientConfiguration);
+        }
+        factory.setShareNativeConnection(connection.isShareNativeConnection());
+        return factory;
+    }
+
+    private static GenericObjectPoolConfig poolConfig(CacheProperties.Pool pool) {
+        GenericObjectPoolConfig config = new GenericObjectPoolConfig();
+        config.setMaxTotal(pool.getMaxActive());
+        config.setMaxIdle(pool.getMaxIdle());
+        config.setMinIdle(pool.getMinIdle());
+        config.setMaxWaitMillis(pool.getMaxWait().toMillis());
+        return config;
+    }
+
+    /**
+     * 需要原生连接执行的命令，按连接工厂选择 Lettuce 或 Jedis 实现
+     */
+    @Bean
+    public DriverCommands driverCommands(RedisConnectionFactory redisConnectionFactory) {
+        return DriverCommands.forFactory(redisConnectionFactory);
+    }
+
     // 原来的方式
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory, DefaultSerializer defaultSerializer) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory,
+                                                       @Qualifier("cacheValueSerializer") RedisSerializer<Object> valueSerializer) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(redisConnectionFactory);
         template.afterPropertiesSet();
@@ -32,12 +217,127 @@ public class CacheConfig {
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
         // ObjectRedisSerializer类为java对象的序列化和反序列化工具类
-        template.setValueSerializer(defaultSerializer);
+        template.setValueSerializer(valueSerializer);
         // 为hashvalue添加序列化和反序列化类
-        template.setHashValueSerializer(defaultSerializer);
+        template.setHashValueSerializer(valueSerializer);
         return template;
     }
 
+    /**
+     * 响应式模板，复用 Lettuce 连接工厂，序列化方式与 redisTemplate 一致
+     */
+    @Bean
+    public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(ReactiveRedisConnectionFactory reactiveRedisConnectionFactory,
+                                                                       @Qualifier("cacheValueSerializer") RedisSerializer<Object> valueSerializer) {
+        RedisSerializationContext<String, Object> serializationContext = RedisSerializationContext
+                .<String, Object>newSerializationContext(valueSerializer)
+                .key(StringRedisSerializer.UTF_8)
+                .hashKey(StringRedisSerializer.UTF_8)
+                .build();
+        return new ReactiveRedisTemplate<>(reactiveRedisConnectionFactory, serializationContext);
+    }
+
+    /**
+     * 跨节点加载完成通知，getOrLoadDistributed 的等待方通过它唤醒
+     */
+    @Bean
+    public LoadCompletionListener loadCompletionListener(RedisTemplate<String, Object> redisTemplate) {
+        return new LoadCompletionListener(redisTemplate);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer loadCompletionListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                         LoadCompletionListener loadCompletionListener) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(loadCompletionListener, new PatternTopic(LoadCompletionListener.CHANNEL_PATTERN));
+        return container;
+    }
+
+    /**
+     * 本地缓存失效监听，订阅键空间通知
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "hjmos.cache.invalidation", name = "enabled", havingValue = "true")
+    public KeyspaceInvalidationListener keyspaceInvalidationListener() {
+        return new KeyspaceInvalidationListener();
+    }
+
+    /**
+     * 订阅断开到重新订阅之间的失效通知会丢失，断开和重建时都清空本地缓存：
+     * Lettuce 的订阅连接断线后自动重连重订阅，容器感知不到，只能通过事件总线监听连接断开和重新激活；
+     * 共用的事件总线上还有 MULTI 专用连接、按库路由的连接工厂、加载通知订阅和连接池的事件，
+     * 所以订阅单独建一个连接工厂和 ClientResources，事件总线上只有订阅自己的连接；
+     * 容器自身订阅失败时在出错和重试订阅前各清空一次
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "hjmos.cache.invalidation", name = "enabled", havingValue = "true")
+    public RedisMessageListenerContainer invalidationListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                       RedisProperties redisProperties,
+                                                                       KeyspaceInvalidationListener keyspaceInvalidationListener) {
+        CacheProperties.Invalidation invalidation = cacheProperties.getInvalidation();
+        if (invalidation.isConfigureServer()) {
+            configureKeyspaceEvents(redisConnectionFactory, invalidation.getKeyspaceEvents());
+        }
+        ClientResources subscriptionResources = DefaultClientResources.builder()
+                .ioThreadPoolSize(1)
+                .computationThreadPoolSize(1)
+                .build();
+        LettuceConnectionFactory subscriptionFactory = lettuceConnectionFactory(redisProperties, cacheProperties.getConnection(), subscriptionResources);
+        // 不建共用连接，工厂只打开订阅连接
+        subscriptionFactory.setShareNativeConnection(false);
+        subscriptionFactory.afterPropertiesSet();
+        keyspaceInvalidationListener.resetOnConnectionEvents(subscriptionResources.eventBus());
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
+            @Override
+            protected void handleSubscriptionException(Throwable ex) {
+                keyspaceInvalidationListener.reset("subscription lost");
+                super.handleSubscriptionException(ex);
+            }
+
+            @Override
+            protected void sleepBeforeRecoveryAttempt() {
+                super.sleepBeforeRecoveryAttempt();
+                keyspaceInvalidationListener.reset("subscription recovering");
+            }
+
+            @Override
+            public void destroy() throws Exception {
+                super.destroy();
+                subscriptionFactory.destroy();
+                subscriptionResources.shutdown();
+            }
+        };
+        container.setConnectionFactory(subscriptionFactory);
+        container.addMessageListener(keyspaceInvalidationListener, new PatternTopic(KeyspaceInvalidationListener.KEYSPACE_PATTERN));
+        return container;
+    }
+
+    /**
+     * 把需要的标志合并到服务端的 notify-keyspace-events 中，服务端禁用 CONFIG 命令时只打印警告
+     */
+    private void configureKeyspaceEvents(RedisConnectionFactory redisConnectionFactory, String keyspaceEvents) {
+        RedisConnection connection = redisConnectionFactory.getConnection();
+        try {
+            Properties config = connection.getConfig("notify-keyspace-events");
+            String current = config == null ? "" : config.getProperty("notify-keyspace-events", "");
+            StringBuilder merged = new StringBuilder(current);
+            for (char flag : keyspaceEvents.toCharArray()) {
+                if (merged.indexOf(String.valueOf(flag)) < 0) {
+                    merged.append(flag);
+                }
+            }
+            if (!merged.toString().equals(current)) {
+                connection.setConfig("notify-keyspace-events", merged.toString());
+                log.info("notify-keyspace-events changed from '{}' to '{}'", current, merged);
+            }
+        } catch (Exception ex) {
+            log.warn("configure notify-keyspace-events has a error, reason -> {}", ex.getMessage());
+        } finally {
+            connection.close();
+        }
+    }
+
     /*@Bean
     public RedisTemplate<String, Object> redisTemplate(DefaultSerializer defaultSerializer) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
@@ -0,0 +1,387 @@
+package com.pci.hjmos.cache.config;
+
+import com.pci.hjmos.cache.localCache.ConcurrentHashMapCacheUtils;
+import com.pci.hjmos.cache.localCache.EvictionPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存组件配置，前缀 hjmos.cache
+ */
+@Data
+@ConfigurationProperties(prefix = "hjmos.cache")
+public class CacheProperties {
+
+    /**
+     * 本地缓存（ConcurrentHashMapCacheUtils、LocalCache）配置
+     */
+    private Local local = new Local();
+
+    /**
+     * 二级缓存（TieredCacheService）配置
+     */
+    private Tiered tiered = new Tiered();
+
+    /**
+     * 本地缓存失效通知配置
+     */
+    private Invalidation invalidation = new Invalidation();
+
+    /**
+     * 缓存值序列化配置
+     */
+    private Serializer serializer = new Serializer();
+
+    /**
+     * 管道批量操作配置
+     */
+    private Pipeline pipeline = new Pipeline();
+
+    /**
+     * 单 key 读请求合并配置
+     */
+    private Coalescing coalescing = new Coalescing();
+
+    /**
+     * key 遍历与按模式删除配置
+     */
+    private Scan scan = new Scan();
+
+    /**
+     * Lettuce 连接配置，地址、密码、数据库仍取 spring.redis
+     */
+    private Connection connection = new Connection();
+
+    /**
+     * 跨节点合并加载（getOrLoadDistributed）配置
+     */
+    private Loader loader = new Loader();
+
+    /**
+     * 提前刷新（getOrRefresh）配置
+     */
+    private Refresh refresh = new Refresh();
+
+    /**
+     * 过期时间随机偏移配置
+     */
+    private Expiry expiry = new Expiry();
+
+    /**
+     * Redis 调用熔断和隔离舱配置
+     */
+    private Breaker breaker = new Breaker();
+
+    @Data
+    public static class Local {
+        /**
+         * 最大缓存个数，ConcurrentHashMapCacheUtils 和 LocalCache 各自按此限制
+         */
+        private long maximumSize = ConcurrentHashMapCacheUtils.CACHE_MAX_NUMBER;
+        /**
+         * 最大总权重，0 表示不限制；默认按估算的字节数计算权重，可注册 Weigher Bean 替换
+         */
+        private long maximumWeight = 0L;
+        /**
+         * 淘汰策略，LRU 或 LFU
+         */
+        private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+    }
+
+    @Data
+    public static class Tiered {
+        /**
+         * 是否开启二级缓存，开启后 TieredCacheService 作为首选的 CacheService 注入
+         */
+        private boolean enabled = false;
+        /**
+         * 一级缓存最大个数
+         */
+        private long maximumSize = 10000L;
+        /**
+         * 一级缓存存活时间上限，实际存活时间不会超过 Redis 中的剩余存活时间
+         */
+        private Duration expireAfterWrite = Duration.ofSeconds(60);
+    }
+
+    @Data
+    public static class Invalidation {
+        /**
+         * 是否订阅 Redis 键空间通知失效本地缓存
+         */
+        private boolean enabled = false;
+        /**
+         * 启动时是否通过 CONFIG SET 开启服务端的键空间通知，托管 Redis 禁用 CONFIG 命令时需关闭并手动配置
+         */
+        private boolean configureServer = true;
+        /**
+         * 需要开启的 notify-keyspace-events 标志，会与服务端已有的标志合并
+         * K：键空间通知，g：DEL/EXPIRE/RENAME 等通用命令，$：String 命令，x：过期，e：淘汰
+         */
+        private String keyspaceEvents = "Kg$xe";
+    }
+
+    @Data
+    public static class Serializer {
+        /**
+         * 序列化方式，json、typed-json 或 kryo；各方式都能读出其它方式写入的字符串值
+         */
+        private SerializerType type = SerializerType.JSON;
+        /**
+         * kryo、typed-json 注册的类，注册后只写编号不写类名；编号按顺序分配，各节点的配置必须完全一致，新增只能追加在末尾
+         * kryo 默认只读写注册过的类（包括 Kryo 内置类型和常用集合、日期、数值类型），没有注册的类读写时报错
+         */
+        private List<Class<?>> registeredClasses = new ArrayList<>();
+        /**
+         * kryo 允许不注册、直接写入完整类名的包前缀，如 com.pci.hjmos.，默认为空即不允许；
+         * 读取时按数据中的类名创建实例且不调用构造方法，只应放入自己的业务类所在的包
+         */
+        private List<String> allowedPackages = new ArrayList<>();
+        /**
+         * 压缩配置
+         */
+        private Compression compression = new Compression();
+    }
+
+    @Data
+    public static class Compression {
+        /**
+         * 是否对较大的缓存值做 LZ4 压缩，关闭后仍能读取之前压缩写入的值
+         */
+        private boolean enabled = false;
+        /**
+         * 压缩阈值(字节)，序列化结果小于该值时不压缩
+         */
+        private int threshold = 1024;
+    }
+
+    @Data
+    public static class Pipeline {
+        /**
+         * 每批发送的命令数，批越大往返越少，但单批占用的连接和内存越多
+         */
+        private int chunkSize = 1000;
+    }
+
+    @Data
+    public static class Coalescing {
+        /**
+         * 是否合并并发的单 key 读请求，开启后 CacheService.get 在窗口内攒批，一次 MGET 取回
+         */
+        private boolean enabled = false;
+        /**
+         * 默认合并窗口，没有匹配到前缀的 key 使用
+         */
+        private Window window = new Window();
+        /**
+         * 按 key 前缀单独配置的合并窗口，按最长前缀匹配
+         */
+        private Map<String, Window> prefixes = new LinkedHashMap<>();
+        /**
+         * 定时线程数，定时线程只负责把到期的批次交给发送线程，不执行读取
+         */
+        private int threads = 2;
+    }
+
+    @Data
+    public static class Window {
+        /**
+         * 是否合并，关闭后该前缀的 key 直接读取
+         */
+        private boolean enabled = true;
+        /**
+         * 攒满多少个请求立即发送
+         */
+        private int maxBatchSize = 64;
+        /**
+         * 第一个请求最多等待多久发送，即合并带来的额外延迟上限
+         */
+        private Duration maxDelay = Duration.ofMillis(1);
+    }
+
+    @Data
+    public static class Scan {
+        /**
+         * 按模式删除时每秒最多删除的 key 个数，0 表示不限制
+         */
+        private double deleteRate = 10000;
+    }
+
+    @Data
+    public static class Connection {
+        /**
+         * IO 线程数，0 表示按 CPU 核数
+         */
+        private int ioThreads = 0;
+        /**
+         * 计算线程数（事件分发、响应式回调），0 表示按 CPU 核数
+         */
+        private int computationThreads = 0;
+        /**
+         * 建立连接的超时时间
+         */
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        /**
+         * 命令超时时间，不配置时取 spring.redis.timeout，都没有配置时为 60s
+         */
+        private Duration commandTimeout;
+        /**
+         * 关闭客户端时等待未完成命令的时间
+         */
+        private Duration shutdownTimeout = Duration.ofMillis(100);
+        /**
+         * 是否关闭 Nagle 算法，小包立即发送
+         */
+        private boolean tcpNoDelay = true;
+        /**
+         * 是否开启 TCP keepalive
+         */
+        private boolean keepAlive = true;
+        /**
+         * 普通命令是否共用一条原生连接；关闭后每次操作单独取一条连接，通常需要同时开启连接池
+         */
+        private boolean shareNativeConnection = true;
+        /**
+         * 是否使用连接池；共用原生连接时，连接池只用于事务、阻塞命令等需要独占连接的操作
+         */
+        private boolean pooled = false;
+        /**
+         * 连接池配置，pooled 为 true 时生效
+         */
+        private Pool pool = new Pool();
+    }
+
+    @Data
+    public static class Pool {
+        /**
+         * 最大连接数
+         */
+        private int maxActive = 8;
+        /**
+         * 最大空闲连接数
+         */
+        private int maxIdle = 8;
+        /**
+         * 最小空闲连接数
+         */
+        private int minIdle = 0;
+        /**
+         * 连接耗尽时获取连接的最长等待时间，负数表示一直等待
+         */
+        private Duration maxWait = Duration.ofMillis(-1);
+    }
+
+    @Data
+    public static class Loader {
+        /**
+         * 加载锁的租期，持有锁的节点宕机后最多经过这么久其它节点可以重新加锁，应大于正常的加载耗时
+         */
+        private Duration leaseTime = Duration.ofSeconds(30);
+        /**
+         * 其它节点正在加载时每次等待通知的最长时间，超时后重新检查加载锁，锁仍被持有则继续等待
+         */
+        private Duration maxWait = Duration.ofSeconds(3);
+        /**
+         * 加载锁 key 的后缀，锁 key 为缓存 key 加后缀
+         */
+        private String lockSuffix = ":lock";
+    }
+
+    @Data
+    public static class Refresh {
+        /**
+         * 后台刷新线程数
+         */
+        private int threads = 2;
+        /**
+         * 等待刷新的任务数上限，超过时放弃刷新，继续返回旧值
+         */
+        private int queueCapacity = 1000;
+    }
+
+    @Data
+    public static class Expiry {
+        /**
+         * 默认偏移规则，没有匹配到前缀的 key 使用
+         */
+        private Jitter jitter = new Jitter();
+        /**
+         * 按 key 前缀单独配置的偏移规则，按最长前缀匹配
+         */
+        private Map<String, Jitter> prefixes = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class Jitter {
+        /**
+         * 偏移方式
+         */
+        private JitterType type = JitterType.NONE;
+        /**
+         * UNIFORM 方式的最大偏移
+         */
+        private Duration max = Duration.ofSeconds(60);
+        /**
+         * PERCENTAGE 方式的最大偏移占过期时间的比例
+         */
+        private double percentage = 0.1;
+    }
+
+    @Data
+    public static class Breaker {
+        /**
+         * 是否开启熔断和隔离舱
+         */
+        private boolean enabled = false;
+        /**
+         * 同时进行的 Redis 调用数上限，超过时直接降级
+         */
+        private int maxConcurrentCalls = 64;
+        /**
+         * 统计窗口的调用数，窗口满后重新统计
+         */
+        private int windowSize = 100;
+        /**
+         * 窗口内至少有这么多次调用才计算失败率
+         */
+        private int minimumCalls = 20;
+        /**
+         * 失败率达到该比例时打开熔断
+         */
+        private double failureRateThreshold = 0.5;
+        /**
+         * 耗时超过该值的调用记为失败
+         */
+        private Duration slowCallThreshold = Duration.ofMillis(200);
+        /**
+         * 熔断打开后经过多久进入半开状态
+         */
+        private Duration waitInOpen = Duration.ofSeconds(5);
+        /**
+         * 半开状态放行的试探调用数，全部成功后关闭熔断
+         */
+        private int halfOpenCalls = 5;
+        /**
+         * 本地降级缓存的最大个数
+         */
+        private long fallbackSize = 10000;
+        /**
+         * 本地降级缓存的存活时间，降级时最多读到这么旧的值
+         */
+        private Duration fallbackTtl = Duration.ofMinutes(10);
+        /**
+         * 降级时写操作的处理方式
+         */
+        private DegradedWritePolicy writePolicy = DegradedWritePolicy.DROP;
+        /**
+         * QUEUE 方式下等待重放的写入数上限
+         */
+        private int writeQueueCapacity = 1000;
+    }
+}
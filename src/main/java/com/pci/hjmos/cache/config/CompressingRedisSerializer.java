@@ -0,0 +1,90 @@
+package com.pci.hjmos.cache.config;
+
+import lombok.extern.log4j.Log4j2;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 压缩包装，包在 DefaultSerializer 等序列化器外层
+ * 内层序列化结果不小于阈值时用 LZ4 压缩，写成 [格式标识][原始长度 4 字节][LZ4 数据]，压缩后没有变小则原样写入；
+ * 读取时带格式标识的值先解压，其它值直接交给内层序列化器，压缩前后写入的值可以共存
+ */
+@Log4j2
+public class CompressingRedisSerializer implements RedisSerializer<Object> {
+
+    private static final int HEADER_LENGTH = 5;
+
+    private final RedisSerializer<Object> delegate;
+    private final int threshold;
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+    private final CompressionStats stats = new CompressionStats();
+
+    /**
+     * @param delegate 内层序列化器
+     * @param threshold 压缩阈值(字节)，内层序列化结果小于该值时不压缩
+     */
+    public CompressingRedisSerializer(RedisSerializer<Object> delegate, int threshold) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.fastDecompressor();
+    }
+
+    @Override
+    public byte[] serialize(Object object) throws SerializationException {
+        byte[] bytes = delegate.serialize(object);
+        if (bytes == null || bytes.length < threshold) {
+            stats.recordSkip();
+            return bytes;
+        }
+        long start = System.nanoTime();
+        byte[] compressed = new byte[HEADER_LENGTH + compressor.maxCompressedLength(bytes.length)];
+        int length = compressor.compress(bytes, 0, bytes.length, compressed, HEADER_LENGTH);
+        byte[] result;
+        if (HEADER_LENGTH + length < bytes.length) {
+            compressed[0] = SerializerFormat.LZ4;
+            compressed[1] = (byte) (bytes.length >>> 24);
+            compressed[2] = (byte) (bytes.length >>> 16);
+            compressed[3] = (byte) (bytes.length >>> 8);
+            compressed[4] = (byte) bytes.length;
+            result = new byte[HEADER_LENGTH + length];
+            System.arraycopy(compressed, 0, result, 0, result.length);
+        } else {
+            result = bytes;
+        }
+        stats.recordCompress(bytes.length, result.length, System.nanoTime() - start);
+        return result;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (!SerializerFormat.hasFormat(bytes, SerializerFormat.LZ4) || bytes.length < HEADER_LENGTH) {
+            return delegate.deserialize(bytes);
+        }
+        long start = System.nanoTime();
+        byte[] raw;
+        try {
+            int rawLength = ((bytes[1] & 0xFF) << 24) | ((bytes[2] & 0xFF) << 16)
+                    | ((bytes[3] & 0xFF) << 8) | (bytes[4] & 0xFF);
+            raw = new byte[rawLength];
+            decompressor.decompress(bytes, HEADER_LENGTH, raw, 0, rawLength);
+        } catch (Exception ex) {
+            log.error("decompress has a error, reason -> {}", ex.getMessage());
+            return null;
+        }
+        stats.recordDecompress(System.nanoTime() - start);
+        return delegate.deserialize(raw);
+    }
+
+    /**
+     * 压缩统计
+     */
+    public CompressionStats getStats() {
+        return stats;
+    }
+}
@@ -0,0 +1,91 @@
+package com.pci.hjmos.cache.config;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存值压缩统计
+ * 压缩率、压缩与解压耗时用于按部署调整 hjmos.cache.serializer.compression.threshold
+ */
+public class CompressionStats {
+
+    private final LongAdder compressedCount = new LongAdder();
+    private final LongAdder skippedCount = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder compressNanos = new LongAdder();
+    private final LongAdder decompressedCount = new LongAdder();
+    private final LongAdder decompressNanos = new LongAdder();
+
+    /**
+     * 记录一次压缩，包括压缩后没有变小而放弃的情况
+     * @param rawLength 压缩前字节数
+     * @param storedLength 实际写入的字节数
+     */
+    void recordCompress(int rawLength, int storedLength, long nanos) {
+        compressedCount.increment();
+        rawBytes.add(rawLength);
+        compressedBytes.add(storedLength);
+        compressNanos.add(nanos);
+    }
+
+    /**
+     * 记录一次低于阈值而未压缩的写入
+     */
+    void recordSkip() {
+        skippedCount.increment();
+    }
+
+    void recordDecompress(long nanos) {
+        decompressedCount.increment();
+        decompressNanos.add(nanos);
+    }
+
+    public long getCompressedCount() {
+        return compressedCount.sum();
+    }
+
+    public long getSkippedCount() {
+        return skippedCount.sum();
+    }
+
+    public long getDecompressedCount() {
+        return decompressedCount.sum();
+    }
+
+    /**
+     * 压缩后与压缩前的字节数之比，越小越好，没有压缩过时为 1
+     */
+    public double compressionRatio() {
+        long raw = rawBytes.sum();
+        return raw == 0 ? 1.0 : (double) compressedBytes.sum() / raw;
+    }
+
+    /**
+     * 平均每次压缩耗时(微秒us)
+     */
+    public double averageCompressMicros() {
+        return average(compressNanos.sum(), getCompressedCount());
+    }
+
+    /**
+     * 平均每次解压耗时(微秒us)
+     */
+    public double averageDecompressMicros() {
+        return average(decompressNanos.sum(), getDecompressedCount());
+    }
+
+    private static double average(long nanos, long count) {
+        return count == 0 ? 0.0 : nanos / 1000.0 / count;
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionStats {" +
+                "compressed = " + getCompressedCount() +
+                ", skipped = " + getSkippedCount() +
+                ", ratio = " + String.format("%.3f", compressionRatio()) +
+                ", compressMicros = " + String.format("%.2f", averageCompressMicros()) +
+                ", decompressMicros = " + String.format("%.2f", averageDecompressMicros()) +
+                '}';
+    }
+}
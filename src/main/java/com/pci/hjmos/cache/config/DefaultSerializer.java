@@ -38,6 +38,12 @@ public class DefaultSerializer implements RedisSerializer<Object> {
                     return str.getBytes(charset);
                 }
 
+                // UTF-8 直接输出字节，省去中间字符串
+                if (charset == StandardCharsets.UTF_8) {
+                    byte[] jsonByte = JsonUtils.toJsonByte(object);
+                    return (jsonByte == null ? EMPTY_ARRAY : jsonByte);
+                }
+
                 String jsonString = JsonUtils.toJsonStr(object);
 
                 return (jsonString == null ? EMPTY_ARRAY : jsonString.getBytes(charset));
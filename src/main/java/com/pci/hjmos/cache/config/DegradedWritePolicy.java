@@ -0,0 +1,18 @@
+package com.pci.hjmos.cache.config;
+
+/**
+ * 熔断打开或隔离舱已满时写操作的处理方式，两种方式都会同步更新本地降级缓存
+ */
+public enum DegradedWritePolicy {
+
+    /**
+     * 直接丢弃
+     */
+    DROP,
+
+    /**
+     * 放入有界队列，熔断关闭后按顺序重放，队列满时丢弃；
+     * 重放可能覆盖恢复后的新写入，只适合最后写入生效、允许短时不一致的数据
+     */
+    QUEUE
+}
@@ -0,0 +1,22 @@
+package com.pci.hjmos.cache.config;
+
+/**
+ * 过期时间随机偏移方式，偏移只会延长过期时间，不会短于调用方指定的时间
+ */
+public enum JitterType {
+
+    /**
+     * 不偏移，按调用方指定的时间过期
+     */
+    NONE,
+
+    /**
+     * 在 [0, max] 秒内均匀随机延长
+     */
+    UNIFORM,
+
+    /**
+     * 在 [0, 过期时间 * percentage] 内均匀随机延长，过期时间越长偏移越大
+     */
+    PERCENTAGE
+}
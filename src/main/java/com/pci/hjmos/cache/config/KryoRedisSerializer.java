@@ -0,0 +1,175 @@
+package com.pci.hjmos.cache.config;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Registration;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.pool.KryoPool;
+import lombok.extern.log4j.Log4j2;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Kryo 二进制序列化
+ * 字符串仍按 UTF-8 原样写入，其它对象写成 [格式标识][Kryo 数据]，读取时直接还原成原来的类型；
+ * 没有格式标识的值按 DefaultSerializer 的方式当作字符串读取，可以和旧数据共存
+ * 写入复用线程内的输出缓冲区，只在最后拷贝一次得到结果；Kryo 实例通过对象池复用
+ * 注册表中的类只写入编号不写类名，各节点注册的类及顺序必须一致；
+ * 读写的类必须已注册（Kryo 内置类型、默认注册的常用类型和 registeredClasses），或者位于 allowedPackages 中，
+ * 后者写入完整类名；Redis 中的数据可能被篡改，不限制时任何能写 Redis 的人都可以指定反序列化时创建的类
+ */
+@Log4j2
+public class KryoRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte[] EMPTY_ARRAY = new byte[0];
+
+    /**
+     * 注册编号起始值，避开 Kryo 内置类型占用的编号
+     */
+    private static final int FIRST_REGISTRATION_ID = 100;
+
+    /**
+     * 默认注册的常用类型，新增类型只能追加在末尾
+     */
+    private static final List<Class<?>> DEFAULT_REGISTERED_CLASSES = Collections.unmodifiableList(Arrays.asList(
+            HashMap.class, LinkedHashMap.class, TreeMap.class,
+            ArrayList.class, LinkedList.class, HashSet.class, LinkedHashSet.class,
+            Date.class, BigDecimal.class, BigInteger.class, Object[].class));
+
+    /**
+     * 线程内缓冲区初始大小，以及允许线程长期持有的最大大小
+     */
+    private static final int BUFFER_SIZE = 4 * 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private final KryoPool kryoPool;
+
+    private final List<String> allowedPackages;
+
+    private final ThreadLocal<Output> outputs = ThreadLocal.withInitial(() -> new Output(BUFFER_SIZE, -1));
+    private final ThreadLocal<Input> inputs = ThreadLocal.withInitial(Input::new);
+
+    public KryoRedisSerializer() {
+        this(Collections.emptyList());
+    }
+
+    /**
+     * 只允许注册过的类
+     * @param registeredClasses 追加注册的类，编号按顺序分配
+     */
+    public KryoRedisSerializer(List<Class<?>> registeredClasses) {
+        this(registeredClasses, Collections.emptyList());
+    }
+
+    /**
+     * @param registeredClasses 追加注册的类，编号按顺序分配
+     * @param allowedPackages 允许不注册直接写入类名的包，如 com.pci.hjmos.
+     */
+    public KryoRedisSerializer(List<Class<?>> registeredClasses, List<String> allowedPackages) {
+        List<Class<?>> classes = new ArrayList<>(DEFAULT_REGISTERED_CLASSES);
+        classes.addAll(registeredClasses);
+        this.allowedPackages = new ArrayList<>(allowedPackages);
+        this.kryoPool = new KryoPool.Builder(() -> newKryo(classes)).softReferences().build();
+    }
+
+    @Override
+    public byte[] serialize(Object object) throws SerializationException {
+        if (null == object) {
+            return EMPTY_ARRAY;
+        }
+        if (object instanceof String) {
+            return ((String) object).getBytes(StandardCharsets.UTF_8);
+        }
+        Output output = outputs.get();
+        Kryo kryo = kryoPool.borrow();
+        try {
+            output.clear();
+            output.writeByte(SerializerFormat.KRYO);
+            kryo.writeClassAndObject(output, object);
+            return output.toBytes();
+        } catch (Exception ex) {
+            log.error("serialize has a error, reason -> {}", ex.getMessage());
+            return EMPTY_ARRAY;
+        } finally {
+            kryoPool.release(kryo);
+            if (output.getBuffer().length > MAX_RETAINED_BUFFER_SIZE) {
+                outputs.remove();
+            }
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (!SerializerFormat.hasFormat(bytes, SerializerFormat.KRYO)) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        Input input = inputs.get();
+        Kryo kryo = kryoPool.borrow();
+        try {
+            input.setBuffer(bytes, 1, bytes.length - 1);
+            return kryo.readClassAndObject(input);
+        } catch (Exception ex) {
+            log.error("deserialize has a error, reason -> {}", ex.getMessage());
+            return null;
+        } finally {
+            input.setBuffer(EMPTY_ARRAY);
+            kryoPool.release(kryo);
+        }
+    }
+
+    private Kryo newKryo(List<Class<?>> registeredClasses) {
+        Kryo kryo = new Kryo() {
+            /**
+             * 写入和读取都经过这里取得类的注册信息，读取时类名来自 Redis 中的数据，在创建实例之前拦截
+             */
+            @Override
+            public Registration getRegistration(Class type) {
+                if (getClassResolver().getRegistration(type) == null && !isAllowed(type)) {
+                    throw new KryoException("class is not registered or in hjmos.cache.serializer.allowed-packages: " + type.getName());
+                }
+                return super.getRegistration(type);
+            }
+        };
+        kryo.setRegistrationRequired(false);
+        // 缓存值不会出现循环引用，关闭引用跟踪以减少开销
+        kryo.setReferences(false);
+        // 没有无参构造方法的类直接分配实例
+        ((Kryo.DefaultInstantiatorStrategy) kryo.getInstantiatorStrategy())
+                .setFallbackInstantiatorStrategy(new StdInstantiatorStrategy());
+        int id = FIRST_REGISTRATION_ID;
+        for (Class<?> type : registeredClasses) {
+            kryo.register(type, id++);
+        }
+        return kryo;
+    }
+
+    private boolean isAllowed(Class<?> type) {
+        String name = type.getName();
+        for (String allowedPackage : allowedPackages) {
+            if (name.startsWith(allowedPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
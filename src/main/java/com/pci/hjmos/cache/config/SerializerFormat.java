@@ -0,0 +1,34 @@
+package com.pci.hjmos.cache.config;
+
+/**
+ * 缓存值的格式标识
+ * 非纯文本格式的值以一个标识字节开头，标识取 UTF-8 编码中不会出现的 0xF8~0xFF，
+ * 因此可以和 DefaultSerializer 写入的纯文本值区分开，切换序列化方式后新旧格式的值可以共存
+ */
+final class SerializerFormat {
+
+    /**
+     * Kryo 二进制格式
+     */
+    static final byte KRYO = (byte) 0xFA;
+
+    /**
+     * 带类型头的 json 格式
+     */
+    static final byte TYPED_JSON = (byte) 0xFB;
+
+    /**
+     * LZ4 压缩格式，解压后再按内层格式读取
+     */
+    static final byte LZ4 = (byte) 0xFC;
+
+    private SerializerFormat() {
+    }
+
+    /**
+     * 是否以指定的格式标识开头
+     */
+    static boolean hasFormat(byte[] bytes, byte format) {
+        return bytes != null && bytes.length > 0 && bytes[0] == format;
+    }
+}
@@ -0,0 +1,22 @@
+package com.pci.hjmos.cache.config;
+
+/**
+ * 缓存值的序列化方式
+ */
+public enum SerializerType {
+
+    /**
+     * DefaultSerializer：字符串原样写入，其它对象转成 json 字符串，读取时统一返回字符串
+     */
+    JSON,
+
+    /**
+     * TypedJsonRedisSerializer：字符串原样写入，其它对象写成 [类型头][json]，读取时还原成原来的类型
+     */
+    TYPED_JSON,
+
+    /**
+     * KryoRedisSerializer：字符串原样写入，其它对象写成 Kryo 二进制，读取时还原成原来的类型
+     */
+    KRYO
+}
@@ -0,0 +1,137 @@
+package com.pci.hjmos.cache.config;
+
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.pci.hjmos.cache.utils.JsonUtils;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.ClassUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 带类型头的 json 序列化
+ * 字符串仍按 UTF-8 原样写入，其它对象写成 [格式标识][类型头][json]，json 直接以 UTF-8 写入线程内复用的缓冲区，
+ * 不生成中间字符串；读取时按类型头找到按类缓存的 ObjectReader，一次解析还原成原来的类型
+ * 类型头为 2 字节有符号数：非负数表示后面紧跟的类名长度，负数 -(n + 1) 表示注册表中的第 n 个类，只占 2 字节
+ * 类型头只记录最外层的类，集合中的元素按 json 默认类型还原；没有格式标识的值按字符串读取，可以和旧数据共存
+ */
+@Log4j2
+public class TypedJsonRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte[] EMPTY_ARRAY = new byte[0];
+
+    private static final int BUFFER_SIZE = 4 * 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private final List<Class<?>> registeredClasses;
+    private final Map<Class<?>, Integer> registeredIds = new HashMap<>();
+
+    /**
+     * 按类缓存的类型头，以及按类名缓存的类
+     */
+    private final Map<Class<?>, byte[]> headers = new ConcurrentHashMap<>();
+    private final Map<String, Class<?>> classes = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<ByteArrayBuilder> buffers = ThreadLocal.withInitial(() -> new ByteArrayBuilder(BUFFER_SIZE));
+
+    public TypedJsonRedisSerializer() {
+        this(Collections.emptyList());
+    }
+
+    /**
+     * @param registeredClasses 注册的类，类型头只写编号；编号按顺序分配，各节点必须一致
+     */
+    public TypedJsonRedisSerializer(List<Class<?>> registeredClasses) {
+        if (registeredClasses.size() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("too many registered classes: " + registeredClasses.size());
+        }
+        this.registeredClasses = new ArrayList<>(registeredClasses);
+        for (int i = 0; i < registeredClasses.size(); i++) {
+            registeredIds.putIfAbsent(registeredClasses.get(i), i);
+        }
+    }
+
+    @Override
+    public byte[] serialize(Object object) throws SerializationException {
+        if (null == object) {
+            return EMPTY_ARRAY;
+        }
+        if (object instanceof String) {
+            return ((String) object).getBytes(StandardCharsets.UTF_8);
+        }
+        ByteArrayBuilder buffer = buffers.get();
+        try {
+            buffer.reset();
+            buffer.write(headers.computeIfAbsent(object.getClass(), this::newHeader));
+            JsonUtils.writeJson(buffer, object);
+            return buffer.toByteArray();
+        } catch (Exception ex) {
+            log.error("serialize has a error, reason -> {}", ex.getMessage());
+            return EMPTY_ARRAY;
+        } finally {
+            if (buffer.size() > MAX_RETAINED_BUFFER_SIZE) {
+                buffers.remove();
+            }
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (!SerializerFormat.hasFormat(bytes, SerializerFormat.TYPED_JSON) || bytes.length < 3) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        try {
+            short typeHeader = (short) (((bytes[1] & 0xFF) << 8) | (bytes[2] & 0xFF));
+            int offset = 3;
+            Class<?> type;
+            if (typeHeader < 0) {
+                type = registeredClasses.get(-(typeHeader + 1));
+            } else {
+                type = resolveClass(new String(bytes, offset, typeHeader, StandardCharsets.UTF_8));
+                offset += typeHeader;
+            }
+            return JsonUtils.readJson(bytes, offset, bytes.length - offset, type);
+        } catch (Exception ex) {
+            log.error("deserialize has a error, reason -> {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    private byte[] newHeader(Class<?> type) {
+        Integer id = registeredIds.get(type);
+        if (id != null) {
+            int typeHeader = -(id + 1);
+            return new byte[]{SerializerFormat.TYPED_JSON, (byte) (typeHeader >>> 8), (byte) typeHeader};
+        }
+        byte[] name = type.getName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("class name too long: " + type.getName());
+        }
+        byte[] header = new byte[3 + name.length];
+        header[0] = SerializerFormat.TYPED_JSON;
+        header[1] = (byte) (name.length >>> 8);
+        header[2] = (byte) name.length;
+        System.arraycopy(name, 0, header, 3, name.length);
+        return header;
+    }
+
+    private Class<?> resolveClass(String className) {
+        return classes.computeIfAbsent(className, name -> {
+            try {
+                return ClassUtils.forName(name, ClassUtils.getDefaultClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("class not found: " + name, e);
+            }
+        });
+    }
+}
@@ -0,0 +1,135 @@
+package com.pci.hjmos.cache.listener;
+
+import com.pci.hjmos.cache.localCache.ConcurrentHashMapCacheUtils;
+import com.pci.hjmos.cache.localCache.LocalCache;
+import io.lettuce.core.event.EventBus;
+import io.lettuce.core.event.connection.ConnectionActivatedEvent;
+import io.lettuce.core.event.connection.ConnectionDeactivatedEvent;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import reactor.core.Disposable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 本地缓存失效监听
+ * 订阅 Redis 键空间通知（频道 __keyspace@&lt;db&gt;__:&lt;key&gt;），任何节点写入、删除、修改过期时间或 key 过期被淘汰时，
+ * 立即失效本进程中该 key 的本地缓存：ConcurrentHashMapCacheUtils、LocalCache 以及通过 register 注册的一级缓存
+ * 键空间通知不区分事件类型，收到即失效；FLUSHDB/FLUSHALL 不产生键空间通知，需要调用方自行清理
+ * 订阅断开到重新订阅之间的通知会丢失，断开和重建时都调用 reset 清空所有本地缓存，
+ * 订阅连接的断开和重建通过 resetOnConnectionEvents 监听订阅专用的事件总线
+ */
+@Log4j2
+public class KeyspaceInvalidationListener implements MessageListener {
+
+    /**
+     * 订阅所有数据库的键空间通知
+     */
+    public static final String KEYSPACE_PATTERN = "__keyspace@*__:*";
+
+    private static final String KEYSPACE_SEPARATOR = "__:";
+
+    private final List<Consumer<String>> invalidators = new CopyOnWriteArrayList<>();
+
+    private final List<Runnable> resetters = new CopyOnWriteArrayList<>();
+
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+
+    public KeyspaceInvalidationListener() {
+        register(ConcurrentHashMapCacheUtils::deleteCache);
+        register(LocalCache::remove);
+        registerReset(ConcurrentHashMapCacheUtils::clear);
+        registerReset(LocalCache::clear);
+    }
+
+    /**
+     * 注册需要同步失效的本地缓存
+     * @param invalidator 按 key 失效缓存
+     */
+    public void register(Consumer<String> invalidator) {
+        invalidators.add(invalidator);
+    }
+
+    /**
+     * 注册订阅断开或重建时需要清空的本地缓存
+     * @param resetter 清空缓存
+     */
+    public void registerReset(Runnable resetter) {
+        resetters.add(resetter);
+    }
+
+    /**
+     * 清空所有本地缓存，订阅断开或重建时调用
+     * @param reason 原因，只用于日志
+     */
+    public void reset(String reason) {
+        resets.increment();
+        log.warn("clear all local caches, reason -> {}", reason);
+        for (Runnable resetter : resetters) {
+            try {
+                resetter.run();
+            } catch (Exception ex) {
+                log.error("clear local cache has a error", ex);
+            }
+        }
+    }
+
+    /**
+     * 事件总线上的连接断开或激活时清空所有本地缓存
+     * @param eventBus 只承载订阅连接的事件总线，传入共用的事件总线时任意连接的开关都会清空本地缓存
+     * @return 取消监听
+     */
+    public Disposable resetOnConnectionEvents(EventBus eventBus) {
+        return eventBus.get()
+                .filter(event -> event instanceof ConnectionDeactivatedEvent || event instanceof ConnectionActivatedEvent)
+                .subscribe(event -> reset(event instanceof ConnectionDeactivatedEvent
+                        ? "subscription connection deactivated" : "subscription connection activated"));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String key = parseKey(new String(message.getChannel(), StandardCharsets.UTF_8));
+        if (key == null) {
+            return;
+        }
+        invalidations.increment();
+        for (Consumer<String> invalidator : invalidators) {
+            try {
+                invalidator.accept(key);
+            } catch (Exception ex) {
+                log.error("invalidate local cache has a error, key -> {}", key, ex);
+            }
+        }
+    }
+
+    /**
+     * 收到的失效通知次数
+     */
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    /**
+     * 清空所有本地缓存的次数
+     */
+    public long getResetCount() {
+        return resets.sum();
+    }
+
+    /**
+     * 从频道名 __keyspace@0__:key 中解析出 key，不是键空间通知返回 null
+     */
+    static String parseKey(String channel) {
+        int index = channel.indexOf(KEYSPACE_SEPARATOR);
+        if (!channel.startsWith("__keyspace@") || index < 0) {
+            return null;
+        }
+        return channel.substring(index + KEYSPACE_SEPARATOR.length());
+    }
+}
@@ -0,0 +1,67 @@
+package com.pci.hjmos.cache.listener;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 跨节点加载完成通知
+ * 持有加载锁的节点加载结束后向频道 hjmos:cache:loaded:&lt;key&gt; 发布消息，其它节点上等待该 key 的线程收到后立即重新读取缓存，
+ * 不需要按固定间隔轮询；消息可能丢失（订阅尚未生效、连接中断），等待方必须自带超时
+ */
+public class LoadCompletionListener implements MessageListener {
+
+    /**
+     * 订阅所有 key 的加载完成通知
+     */
+    public static final String CHANNEL_PATTERN = "hjmos:cache:loaded:*";
+
+    private static final String CHANNEL_PREFIX = "hjmos:cache:loaded:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final Map<String, CompletableFuture<Void>> waiters = new ConcurrentHashMap<>();
+
+    public LoadCompletionListener(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 等待 key 的加载完成通知，同一个 key 的等待方共用一个 future
+     */
+    public CompletableFuture<Void> await(String key) {
+        return waiters.computeIfAbsent(key, k -> new CompletableFuture<>());
+    }
+
+    /**
+     * 不再等待，等待超时后调用
+     */
+    public void cancel(String key, CompletableFuture<Void> future) {
+        waiters.remove(key, future);
+    }
+
+    /**
+     * 通知所有节点 key 已加载结束，无论加载是否成功都要通知，让等待方尽快重新读取
+     */
+    public void publish(String key) {
+        redisTemplate.execute(connection -> connection.publish(
+                (CHANNEL_PREFIX + key).getBytes(StandardCharsets.UTF_8), new byte[0]), true);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        if (!channel.startsWith(CHANNEL_PREFIX)) {
+            return;
+        }
+        CompletableFuture<Void> future = waiters.remove(channel.substring(CHANNEL_PREFIX.length()));
+        if (future != null) {
+            future.complete(null);
+        }
+    }
+}
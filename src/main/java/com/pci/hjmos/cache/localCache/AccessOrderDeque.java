@@ -0,0 +1,87 @@
+package com.pci.hjmos.cache.localCache;
+
+/**
+ * 按访问顺序排列的侵入式双向链表，表头为最久未使用的节点，表尾为最近使用的节点
+ * 前驱、后继指针直接存放在 CacheObj 上，入队、出队、移动到表尾都是 O(1)
+ * 非线程安全，所有操作都必须在淘汰锁内执行
+ */
+final class AccessOrderDeque {
+
+    private CacheObj first;
+    private CacheObj last;
+
+    /**
+     * 节点是否还挂在链表上
+     */
+    boolean contains(CacheObj node) {
+        return node.prevInAccessOrder != null
+                || node.nextInAccessOrder != null
+                || node == first;
+    }
+
+    /**
+     * 最久未使用的节点
+     */
+    CacheObj peekFirst() {
+        return first;
+    }
+
+    /**
+     * 添加到表尾
+     */
+    void linkLast(CacheObj node) {
+        CacheObj l = last;
+        last = node;
+        if (l == null) {
+            first = node;
+        } else {
+            l.nextInAccessOrder = node;
+            node.prevInAccessOrder = l;
+        }
+    }
+
+    /**
+     * 从链表中摘除，已经不在链表上的节点直接忽略
+     */
+    void unlink(CacheObj node) {
+        if (!contains(node)) {
+            return;
+        }
+        CacheObj prev = node.prevInAccessOrder;
+        CacheObj next = node.nextInAccessOrder;
+        if (prev == null) {
+            first = next;
+        } else {
+            prev.nextInAccessOrder = next;
+            node.prevInAccessOrder = null;
+        }
+        if (next == null) {
+            last = prev;
+        } else {
+            next.prevInAccessOrder = prev;
+            node.nextInAccessOrder = null;
+        }
+    }
+
+    /**
+     * 移动到表尾，已经被摘除的节点不会重新挂回链表
+     */
+    void moveToBack(CacheObj node) {
+        if (node != last && contains(node)) {
+            unlink(node);
+            linkLast(node);
+        }
+    }
+
+    void clear() {
+        CacheObj node = first;
+        while (node != null) {
+            CacheObj next = node.nextInAccessOrder;
+            node.prevInAccessOrder = null;
+            node.nextInAccessOrder = null;
+            node = next;
+        }
+        first = null;
+        last = null;
+    }
+}
@@ -0,0 +1,306 @@
+package com.pci.hjmos.cache.localCache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 有界本地缓存引擎，按 EvictionPolicy 指定的 LRU 或 LFU 策略淘汰
+ * 数据存放在 ConcurrentHashMap 中，访问顺序由 AccessOrderDeque 维护，访问频率由 FrequencySketch 统计：
+ * 读命中只做一次 map 查找和一次不重试的 CAS 投递（失败即丢弃），缓冲区满时只尝试获取淘汰锁，
+ * 读到已过期的缓存直接返回不存在，留给时间轮回收，读路径上没有锁等待，步数有上限；
+ * 写入、删除、淘汰在淘汰锁内完成，每次调整访问顺序都是 O(1)
+ * 容量同时受最大个数和可选的最大权重约束，个数和权重只在 map 真正发生变化时原子地增减
+ * 带过期时间的缓存同时挂在 TimerWheel 上，过期清理只处理到期的时间槽，不再遍历整个 map
+ */
+final class BoundedLocalCache {
+
+    /**
+     * 最大权重为 0 表示不限制权重
+     */
+    static final long UNBOUNDED_WEIGHT = 0L;
+
+    private final ConcurrentHashMap<String, CacheObj> data = new ConcurrentHashMap<>();
+    private final ReadBuffer readBuffer = new ReadBuffer();
+    private final AccessOrderDeque accessOrderDeque = new AccessOrderDeque();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final TimerWheel timerWheel = new TimerWheel(System.currentTimeMillis());
+    /**
+     * 按最大个数分配，调整容量时才扩大，已统计的频率不会在第一次淘汰时丢失
+     */
+    private final FrequencySketch sketch;
+
+    /**
+     * 当前缓存个数、当前总权重
+     */
+    private final AtomicLong size = new AtomicLong();
+    private final AtomicLong weightedSize = new AtomicLong();
+
+    /**
+     * 最大缓存个数
+     */
+    private volatile long maximumSize;
+    /**
+     * 最大总权重
+     */
+    private volatile long maximumWeight = UNBOUNDED_WEIGHT;
+    private volatile Weigher weigher = Weigher.singleton();
+    private volatile EvictionPolicy evictionPolicy;
+
+    BoundedLocalCache(long maximumSize) {
+        this(maximumSize, EvictionPolicy.LRU);
+    }
+
+    BoundedLocalCache(long maximumSize, EvictionPolicy evictionPolicy) {
+        this.maximumSize = maximumSize;
+        this.evictionPolicy = evictionPolicy;
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * 获取缓存，不存在或已过期返回 null
+     * 已过期的缓存不在读路径上删除，由写入或定时清理推进时间轮时回收
+     */
+    Object get(String key, long now) {
+        CacheObj node = data.get(key);
+        if (node == null || node.isExpired(now)) {
+            return null;
+        }
+        if (readBuffer.offer(node) == ReadBuffer.FULL) {
+            tryDrainBuffers();
+        }
+        return node.getCacheValue();
+    }
+
+    /**
+     * 判断缓存在不在、过没过期，不记录访问
+     */
+    boolean containsKey(String key, long now) {
+        CacheObj node = data.get(key);
+        return node != null && !node.isExpired(now);
+    }
+
+    /**
+     * 设置缓存
+     * @param ttlTime 过期时刻，-1 表示永不过期
+     * @param now 当前时刻
+     */
+    void put(String key, Object value, long ttlTime, long now) {
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must not be negative, key: " + key);
+        }
+        CacheObj node = new CacheObj(key, value, ttlTime, weight);
+        CacheObj old = data.put(key, node);
+        if (old == null) {
+            size.incrementAndGet();
+            weightedSize.addAndGet(weight);
+        } else {
+            weightedSize.addAndGet(weight - old.getWeight());
+        }
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            if (old != null) {
+                accessOrderDeque.unlink(old);
+                timerWheel.deschedule(old);
+            }
+            // 并发写同一个 key 时，只有仍在 map 中的节点才挂到链表和时间轮上
+            if (data.get(key) == node) {
+                accessOrderDeque.linkLast(node);
+                timerWheel.schedule(node);
+                if (evictionPolicy == EvictionPolicy.LFU) {
+                    sketch.increment(key);
+                }
+            }
+            // 顺带推进时间轮，没有跨过槽宽时开销可以忽略；清理过期缓存后仍然超出容量再按淘汰策略淘汰
+            expireEntries(now);
+            if (hasOverflowed()) {
+                evictEntries(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 删除缓存
+     * @return 被删除的节点，不存在返回 null
+     */
+    CacheObj remove(String key) {
+        CacheObj node = data.remove(key);
+        if (node != null) {
+            onRemoved(node);
+            unlinkUnderLock(node);
+        }
+        return node;
+    }
+
+    /**
+     * 只有当前映射仍是 node 时才删除，避免误删并发写入的新值
+     */
+    boolean remove(String key, CacheObj node) {
+        if (data.remove(key, node)) {
+            onRemoved(node);
+            unlinkUnderLock(node);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 推进时间轮，删除到期的缓存
+     * @return 删除个数
+     */
+    int expire(long now) {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            return expireEntries(now);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    void clear() {
+        evictionLock.lock();
+        try {
+            readBuffer.drainTo(node -> { });
+            for (String key : data.keySet()) {
+                CacheObj node = data.remove(key);
+                if (node != null) {
+                    onRemoved(node);
+                }
+            }
+            accessOrderDeque.clear();
+            timerWheel.clear();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 调整容量，超出部分立即淘汰
+     * @param maximumSize 最大缓存个数
+     * @param maximumWeight 最大总权重，0 表示不限制
+     * @param weigher 权重计算器，只对之后写入的缓存生效
+     */
+    void setCapacity(long maximumSize, long maximumWeight, Weigher weigher) {
+        if (maximumSize < 0 || maximumWeight < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        evictionLock.lock();
+        try {
+            this.maximumSize = maximumSize;
+            this.maximumWeight = maximumWeight;
+            this.weigher = (weigher == null) ? Weigher.singleton() : weigher;
+            sketch.ensureCapacity(maximumSize);
+            evictEntries(null);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+        if (evictionPolicy == null) {
+            throw new IllegalArgumentException("evictionPolicy must not be null");
+        }
+        this.evictionPolicy = evictionPolicy;
+    }
+
+    EvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    long size() {
+        return size.get();
+    }
+
+    long weightedSize() {
+        return weightedSize.get();
+    }
+
+    private void onRemoved(CacheObj node) {
+        size.decrementAndGet();
+        weightedSize.addAndGet(-node.getWeight());
+    }
+
+    private void unlinkUnderLock(CacheObj node) {
+        evictionLock.lock();
+        try {
+            accessOrderDeque.unlink(node);
+            timerWheel.deschedule(node);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void tryDrainBuffers() {
+        if (evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffer() {
+        readBuffer.drainTo(this::onAccess);
+    }
+
+    /**
+     * 回放一次读命中，已经被删除的缓存不再统计
+     */
+    private void onAccess(CacheObj node) {
+        if (accessOrderDeque.contains(node)) {
+            accessOrderDeque.moveToBack(node);
+            if (evictionPolicy == EvictionPolicy.LFU) {
+                sketch.increment(node.getKey());
+            }
+        }
+    }
+
+    private boolean hasOverflowed() {
+        long maxWeight = maximumWeight;
+        return size.get() > maximumSize
+                || (maxWeight != UNBOUNDED_WEIGHT && weightedSize.get() > maxWeight);
+    }
+
+    private int expireEntries(long now) {
+        return timerWheel.advance(now, node -> {
+            accessOrderDeque.unlink(node);
+            if (data.remove(node.getKey(), node)) {
+                onRemoved(node);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * 超过最大个数或最大权重时淘汰缓存
+     * LRU 直接淘汰表头最久未使用的缓存；
+     * LFU 比较新写入的缓存和表头缓存的访问频率，新缓存频率不高于表头时拒绝准入、淘汰新缓存
+     * @param candidate 本次新写入的缓存，没有时为 null
+     */
+    private void evictEntries(CacheObj candidate) {
+        while (hasOverflowed()) {
+            CacheObj victim = accessOrderDeque.peekFirst();
+            if (victim == null) {
+                return;
+            }
+            if (evictionPolicy == EvictionPolicy.LFU) {
+                if (candidate != null && candidate != victim && accessOrderDeque.contains(candidate)
+                        && sketch.frequency(candidate.getKey()) <= sketch.frequency(victim.getKey())) {
+                    victim = candidate;
+                }
+            }
+            accessOrderDeque.unlink(victim);
+            timerWheel.deschedule(victim);
+            if (data.remove(victim.getKey(), victim)) {
+                onRemoved(victim);
+            }
+        }
+    }
+}
@@ -5,6 +5,10 @@ package com.pci.hjmos.cache.localCache;
  * @sinne 2020-12-12
  */
 public class CacheObj {
+    /**
+     * 缓存键
+     */
+    private final String key;
     /**
      * 缓存对象
      */
@@ -13,10 +17,30 @@ public class CacheObj {
      * 缓存过期时间
      */
     private Long ttlTime;
+    /**
+     * 缓存权重，写入时由 Weigher 计算
+     */
+    private final int weight;
+    /**
+     * 访问顺序链表中的前驱、后继节点，只允许在淘汰锁内读写
+     */
+    CacheObj prevInAccessOrder;
+    CacheObj nextInAccessOrder;
+    /**
+     * 时间轮槽内的前驱、后继节点，只允许在淘汰锁内读写
+     */
+    CacheObj prevInTimer;
+    CacheObj nextInTimer;
 
-    CacheObj(Object cacheValue, Long ttlTime) {
+    CacheObj(String key, Object cacheValue, Long ttlTime, int weight) {
+        this.key = key;
         CacheValue = cacheValue;
         this.ttlTime = ttlTime;
+        this.weight = weight;
+    }
+
+    String getKey() {
+        return key;
     }
 
     Object getCacheValue() {
@@ -27,6 +51,17 @@ public class CacheObj {
         return ttlTime;
     }
 
+    int getWeight() {
+        return weight;
+    }
+
+    /**
+     * 判断在 now 时刻是否已过期，ttlTime 为 -1 表示永不过期
+     */
+    boolean isExpired(long now) {
+        return ttlTime != -1L && ttlTime < now;
+    }
+
     @Override
     public String toString() {
         return "CacheObj {" +
@@ -8,12 +8,10 @@ public class CleanTimeOutThread implements Runnable{
 
     @Override
     public void run() {
-        ConcurrentHashMapCacheUtils.setCleanThreadRun();
         while (true) {
-            System.out.println("clean thread run ");
             ConcurrentHashMapCacheUtils.deleteTimeOut();
             try {
-                Thread.sleep(ConcurrentHashMapCacheUtils.ONE_MINUTE);
+                Thread.sleep(ConcurrentHashMapCacheUtils.CLEAN_INTERVAL);
             } catch (InterruptedException e) {
                 e.printStackTrace();
             }
@@ -3,10 +3,7 @@ package com.pci.hjmos.cache.localCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * @author zyting
@@ -17,29 +14,21 @@ public class ConcurrentHashMapCacheUtils {
     private static Logger LOGGER = LoggerFactory.getLogger(ConcurrentHashMapCacheUtils.class);
 
     /**
-     * 缓存最大个数
+     * 默认缓存最大个数，可通过 hjmos.cache.local.maximum-size 调整
      */
-    private static final Integer CACHE_MAX_NUMBER = 1000;
+    public static final Integer CACHE_MAX_NUMBER = 1000;
     /**
-     * 当前缓存个数
-     */
-    private static Integer CURRENT_SIZE = 0;
-    /**
-     * 时间一分钟
+     * 清理线程的运行间隔，等于时间轮最细一层的槽宽（约一秒）
      */
-    static final Long ONE_MINUTE = 60 * 1000L;
+    static final Long CLEAN_INTERVAL = TimerWheel.TICK;
     /**
-     * 缓存对象
+     * 缓存对象，默认按最近最久未使用淘汰
      */
-    private static final Map<String, CacheObj> CACHE_OBJECT_MAP = new ConcurrentHashMap<>();
-    /**
-     * 这个记录了缓存使用的最后一次的记录，最近使用的在最前面
-     */
-    private static final List<String> CACHE_USE_LOG_LIST = new LinkedList<>();
+    private static final BoundedLocalCache CACHE = new BoundedLocalCache(CACHE_MAX_NUMBER);
     /**
      * 清理过期缓存是否在运行
      */
-    private static volatile Boolean CLEAN_THREAD_IS_RUN = false;
+    private static final AtomicBoolean CLEAN_THREAD_IS_RUN = new AtomicBoolean(false);
 
 
     /**
@@ -54,14 +43,12 @@ public class ConcurrentHashMapCacheUtils {
                 return;
             }
         }
-        checkSize();
-        saveCacheUseLog(cacheKey);
-        CURRENT_SIZE = CURRENT_SIZE + 1;
+        long now = System.currentTimeMillis();
         if (ttlTime == null) {
-            ttlTime = System.currentTimeMillis() + cacheTime;
+            ttlTime = now + cacheTime;
+            startCleanThread();
         }
-        CacheObj cacheObj = new CacheObj(cacheValue, ttlTime);
-        CACHE_OBJECT_MAP.put(cacheKey, cacheObj);
+        CACHE.put(cacheKey, cacheValue, ttlTime, now);
         LOGGER.info("have set key :" + cacheKey);
     }
     /**
@@ -75,119 +62,77 @@ public class ConcurrentHashMapCacheUtils {
      */
     public static Object getCache(String cacheKey) {
         startCleanThread();
-        if (checkCache(cacheKey)) {
-            saveCacheUseLog(cacheKey);
-            return CACHE_OBJECT_MAP.get(cacheKey).getCacheValue();
-        }
-        return null;
+        return CACHE.get(cacheKey, System.currentTimeMillis());
     }
+    /**
+     * 判断缓存在不在,过没过期
+     */
     public static boolean isExist(String cacheKey) {
-        return checkCache(cacheKey);
+        return CACHE.containsKey(cacheKey, System.currentTimeMillis());
     }
     /**
      * 删除所有缓存
      */
     public static void clear() {
         LOGGER.info("have clean all key !");
-        CACHE_OBJECT_MAP.clear();
-        CURRENT_SIZE = 0;
+        CACHE.clear();
     }
     /**
      * 删除某个缓存
      */
     public static void deleteCache(String cacheKey) {
-        Object cacheValue = CACHE_OBJECT_MAP.remove(cacheKey);
-        if (cacheValue != null) {
+        if (CACHE.remove(cacheKey) != null) {
             LOGGER.info("have delete key :" + cacheKey);
-            CURRENT_SIZE = CURRENT_SIZE - 1;
-        }
-    }
-    /**
-     * 判断缓存在不在,过没过期
-     */
-    private static boolean checkCache(String cacheKey) {
-        CacheObj cacheObj = CACHE_OBJECT_MAP.get(cacheKey);
-        if (cacheObj == null) {
-            return false;
         }
-        if (cacheObj.getTtlTime() == -1L) {
-            return true;
-        }
-        if (cacheObj.getTtlTime() < System.currentTimeMillis()) {
-            deleteCache(cacheKey);
-            return false;
-        }
-        return true;
     }
     /**
-     * 删除最近最久未使用的缓存
+     * 删除过期的缓存，只处理时间轮上到期的时间槽
      */
-    private static void deleteLRU() {
-        LOGGER.info("delete Least recently used run!");
-        String cacheKey = null;
-        synchronized (CACHE_USE_LOG_LIST) {
-            if (CACHE_USE_LOG_LIST.size() >= CACHE_MAX_NUMBER - 10) {
-                cacheKey = CACHE_USE_LOG_LIST.remove(CACHE_USE_LOG_LIST.size() - 1);
-            }
-        }
-        if (cacheKey != null) {
-            deleteCache(cacheKey);
+    static void deleteTimeOut() {
+        int count = CACHE.expire(System.currentTimeMillis());
+        if (count > 0) {
+            LOGGER.info("delete cache count is :" + count);
         }
     }
 
     /**
-     * 删除过期的缓存
+     * 调整缓存容量，超出部分按最近最久未使用立即淘汰
+     * @param maximumSize 最大缓存个数
+     * @param maximumWeight 最大总权重，0 表示不限制
+     * @param weigher 权重计算器，为 null 时每个缓存权重为 1
      */
-    static void deleteTimeOut() {
-        LOGGER.info("delete time out run!");
-        List<String> deleteKeyList = new LinkedList<>();
-        for(Map.Entry<String, CacheObj> entry : CACHE_OBJECT_MAP.entrySet()) {
-            if (entry.getValue().getTtlTime() < System.currentTimeMillis() && entry.getValue().getTtlTime() != -1L) {
-                deleteKeyList.add(entry.getKey());
-            }
-        }
-        for (String deleteKey : deleteKeyList) {
-            deleteCache(deleteKey);
-        }
-        LOGGER.info("delete cache count is :" + deleteKeyList.size());
+    public static void setCapacity(long maximumSize, long maximumWeight, Weigher weigher) {
+        CACHE.setCapacity(maximumSize, maximumWeight, weigher);
+        LOGGER.info("cache capacity changed, maximumSize :" + maximumSize + ", maximumWeight :" + maximumWeight);
     }
+
     /**
-     * 检查大小
-     * 当当前大小如果已经达到最大大小
-     * 首先删除过期缓存，如果过期缓存删除过后还是达到最大缓存数目
-     * 删除最久未使用缓存
+     * 切换淘汰策略
      */
-    private static void checkSize() {
-        if (CURRENT_SIZE >= CACHE_MAX_NUMBER) {
-            deleteTimeOut();
-        }
-        if (CURRENT_SIZE >= CACHE_MAX_NUMBER) {
-            deleteLRU();
-        }
+    public static void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+        CACHE.setEvictionPolicy(evictionPolicy);
+        LOGGER.info("cache eviction policy changed :" + evictionPolicy);
     }
 
     /**
-     * 保存缓存的使用记录
+     * 当前缓存个数
      */
-    private static synchronized void saveCacheUseLog(String cacheKey) {
-        synchronized (CACHE_USE_LOG_LIST) {
-            CACHE_USE_LOG_LIST.remove(cacheKey);
-            CACHE_USE_LOG_LIST.add(0,cacheKey);
-        }
+    public static long size() {
+        return CACHE.size();
     }
 
     /**
-     * 设置清理线程的运行状态为正在运行
+     * 当前缓存总权重
      */
-    static void setCleanThreadRun() {
-        CLEAN_THREAD_IS_RUN = true;
+    public static long weightedSize() {
+        return CACHE.weightedSize();
     }
 
     /**
-     * 开启清理过期缓存的线程
+     * 开启清理过期缓存的线程，只会启动一次
      */
     private static void startCleanThread() {
-        if (!CLEAN_THREAD_IS_RUN) {
+        if (!CLEAN_THREAD_IS_RUN.get() && CLEAN_THREAD_IS_RUN.compareAndSet(false, true)) {
             CleanTimeOutThread cleanTimeOutThread = new CleanTimeOutThread();
             Thread thread = new Thread(cleanTimeOutThread);
             //设置为后台守护线程
@@ -0,0 +1,19 @@
+package com.pci.hjmos.cache.localCache;
+
+/**
+ * 本地缓存淘汰策略
+ */
+public enum EvictionPolicy {
+
+    /**
+     * 最近最久未使用：超出容量时淘汰访问顺序链表表头的缓存
+     */
+    LRU,
+
+    /**
+     * 最不经常使用：用频率草图记录每个 key 的近期访问次数，
+     * 超出容量时比较新写入的缓存和表头缓存的访问频率，淘汰频率低的一方，
+     * 偶发的批量扫描不会把热点缓存挤出去
+     */
+    LFU
+}
@@ -13,13 +13,21 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * 本地缓存
+ * 存储引擎为 BoundedLocalCache：读路径无锁，超出容量按 LRU 或 LFU 淘汰；
+ * 每个缓存的过期时刻和值一起存放在 CacheObj 中，所有缓存共用引擎内的时间轮，
+ * 由定时器每隔一个槽宽推进一次，写入时不再为每个 key 单独提交定时任务
  * @author zyting
  * @sinne 2020-12-11
  */
 public class LocalCache {
-    private static final Map<String, Object> map;
+    private static final BoundedLocalCache cache;
     private static final ScheduledExecutorService timerService;  //定时器
 
+    /**
+     * 默认最大缓存个数，可通过 hjmos.cache.local.maximum-size 调整
+     */
+    private static final long DEFAULT_MAX_CAPACITY = 1 << 16;
+
     /**
      * 默认有效时长
      */
@@ -32,8 +40,9 @@ public class LocalCache {
      * 静态初始化块是类相关的，系统将在类加载时执行静态初始化块，而不是在创建对象时才执行，因此静态初始化块总是比非静态初始化块先执行
      */
     static {
-        map = new LRUMap<>();
+        cache = new BoundedLocalCache(DEFAULT_MAX_CAPACITY, EvictionPolicy.LRU);
         timerService = new ScheduledThreadPoolExecutor(1, new LocalCache.DaemonThreadFactory());
+        timerService.scheduleWithFixedDelay(new CleanWorkerTask(), TimerWheel.TICK, TimerWheel.TICK, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -42,6 +51,11 @@ public class LocalCache {
     private LocalCache() {
     }
 
+    /**
+     * 基于读写锁的 LinkedHashMap，已由 BoundedLocalCache 替代，保留用于性能对比
+     * 读操作要竞争读写锁的共享状态，而且没有开启访问顺序，实际上按插入顺序淘汰
+     */
+    @Deprecated
     static class LRUMap<K, V> extends LinkedHashMap<K, V> {
         /**
          * 默认缓存大小
@@ -152,18 +166,13 @@ public class LocalCache {
     }
 
     /**
-     * 清除缓存的任务类
+     * 清除缓存的任务类，推进时间轮并删除到期的缓存
      */
     static class CleanWorkerTask implements Runnable {
-        private String key;
-
-        public CleanWorkerTask(String key) {
-            this.key = key;
-        }
 
         @Override
         public void run() {
-            LocalCache.remove(key);
+            cache.expire(System.currentTimeMillis());
         }
     }
 
@@ -175,7 +184,7 @@ public class LocalCache {
             Thread thread = new Thread(runnable);
             thread.setName("schedule-pool-Thread-" + atomicInteger.getAndIncrement());
             thread.setDaemon(true);
-            return null;
+            return thread;
         }
     }
 
@@ -184,8 +193,7 @@ public class LocalCache {
      * 增加缓存
      */
     public static void add(String key, Object value) {
-        map.put(key, value);
-        timerService.schedule(new CleanWorkerTask(key), DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+        put(key, value, System.currentTimeMillis() + DEFAULT_TIMEOUT);
     }
 
     /**
@@ -193,27 +201,26 @@ public class LocalCache {
      * @param timeout  有效时长
      */
     public static void add(String key, Object value, int timeout) {
-        map.put(key, value);
-        timerService.schedule(new CleanWorkerTask(key), timeout * SECOND_TIME, TimeUnit.MILLISECONDS);
+        put(key, value, System.currentTimeMillis() + timeout * SECOND_TIME);
     }
 
     public static void putAll(Map<String, Object> m, int timeout) {
-        map.putAll(m);
-        for (String key : m.keySet()) {
-            timerService.schedule(new CleanWorkerTask(key), timeout * SECOND_TIME, TimeUnit.MILLISECONDS);
+        long ttlTime = System.currentTimeMillis() + timeout * SECOND_TIME;
+        for (Map.Entry<String, Object> entry : m.entrySet()) {
+            put(entry.getKey(), entry.getValue(), ttlTime);
         }
     }
 
 
     /**
-     * 获取缓存
+     * 获取缓存，已过期但还没被清理的缓存也返回 null
      */
     public static Object get(String key) {
-        return map.get(key);
+        return cache.get(key, System.currentTimeMillis());
     }
 
     public static boolean containsKey(String key) {
-        return map.containsKey(key);
+        return cache.containsKey(key, System.currentTimeMillis());
     }
 
     /**
@@ -221,11 +228,43 @@ public class LocalCache {
      * @param key
      */
     public static void remove(String key) {
-        map.remove(key);
+        cache.remove(key);
     }
 
     public static int size() {
-        return map.size();
+        return (int) cache.size();
+    }
+
+    /**
+     * 删除所有缓存
+     */
+    public static void clear() {
+        cache.clear();
+    }
+
+    /**
+     * 调整缓存容量，超出部分按淘汰策略立即淘汰
+     * @param maximumSize 最大缓存个数
+     * @param maximumWeight 最大总权重，0 表示不限制
+     * @param weigher 权重计算器，为 null 时每个缓存权重为 1
+     */
+    public static void setCapacity(long maximumSize, long maximumWeight, Weigher weigher) {
+        cache.setCapacity(maximumSize, maximumWeight, weigher);
+    }
+
+    /**
+     * 切换淘汰策略
+     */
+    public static void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+        cache.setEvictionPolicy(evictionPolicy);
+    }
+
+    /**
+     * 写入缓存并调度过期，覆盖写时由引擎取消旧值的调度
+     * @param ttlTime 过期时刻
+     */
+    private static void put(String key, Object value, long ttlTime) {
+        cache.put(key, value, ttlTime, System.currentTimeMillis());
     }
 
-}
\ No newline at end of file
+}
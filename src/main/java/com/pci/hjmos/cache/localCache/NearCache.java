@@ -0,0 +1,97 @@
+package com.pci.hjmos.cache.localCache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 可实例化的有界本地缓存，供二级缓存等组件作为一级缓存使用
+ * 与 ConcurrentHashMapCacheUtils 共用 BoundedLocalCache 引擎，读路径无锁；
+ * 过期缓存在读取时直接视为不存在，并在后续写入推进时间轮时回收
+ */
+public final class NearCache {
+
+    /**
+     * 失效版本的分段数，必须是 2 的幂
+     */
+    private static final int STRIPES = 1 << 10;
+
+    private final BoundedLocalCache cache;
+
+    /**
+     * 按 key 哈希分段的失效版本，用于判断回填期间该 key 是否发生过失效，其它 key 的失效不影响回填
+     */
+    private final AtomicLongArray invalidations = new AtomicLongArray(STRIPES);
+
+    /**
+     * @param maximumSize 最大缓存个数
+     * @param evictionPolicy 淘汰策略
+     */
+    public NearCache(long maximumSize, EvictionPolicy evictionPolicy) {
+        this.cache = new BoundedLocalCache(maximumSize, evictionPolicy);
+    }
+
+    /**
+     * 获取缓存，不存在或已过期返回 null
+     */
+    public Object get(String key) {
+        return cache.get(key, System.currentTimeMillis());
+    }
+
+    /**
+     * 设置缓存
+     * @param ttlMillis 存活时间(毫秒ms)，必须大于 0
+     */
+    public void put(String key, Object value, long ttlMillis) {
+        if (ttlMillis <= 0L) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        cache.put(key, value, now + ttlMillis, now);
+    }
+
+    /**
+     * 回填前记录的该 key 的失效戳
+     */
+    public long stamp(String key) {
+        return invalidations.get(stripe(key));
+    }
+
+    /**
+     * 回填缓存，如果该 key 从 stamp 之后发生过失效，则撤销本次回填
+     * 先写入再检查，失效与回填并发时最终都不会留下旧值，代价是同一分段的其它 key 失效时偶尔多撤销一次
+     * @param ttlMillis 存活时间(毫秒ms)
+     * @param stamp 读取数据源之前调用 stamp(key) 得到的值
+     */
+    public void putIfNotInvalidated(String key, Object value, long ttlMillis, long stamp) {
+        put(key, value, ttlMillis);
+        if (invalidations.get(stripe(key)) != stamp) {
+            cache.remove(key);
+        }
+    }
+
+    /**
+     * 失效某个缓存
+     */
+    public void invalidate(String key) {
+        invalidations.incrementAndGet(stripe(key));
+        cache.remove(key);
+    }
+
+    /**
+     * 失效所有缓存，所有分段的失效版本都加一，正在进行的回填全部撤销
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            invalidations.incrementAndGet(i);
+        }
+        cache.clear();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    private static int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,109 @@
+package com.pci.hjmos.cache.localCache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 条带化的读缓冲区
+ * 读命中时只把节点投递到当前线程所在条带的环形缓冲区中，由拿到淘汰锁的线程批量回放到访问顺序链表上
+ * 缓冲区满或者 CAS 失败时直接丢弃本次记录，读路径上不会阻塞，也不会争抢全局锁
+ */
+final class ReadBuffer {
+
+    /**
+     * 投递结果：成功、竞争失败（已丢弃）、缓冲区已满（已丢弃，需要尽快回放）
+     */
+    static final int SUCCESS = 0;
+    static final int FAILED = -1;
+    static final int FULL = 1;
+
+    /**
+     * 每个条带的容量，必须是 2 的幂
+     */
+    static final int BUFFER_SIZE = 16;
+    private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+
+    /**
+     * 条带数，取不小于 CPU 核数的 2 的幂
+     */
+    private static final int STRIPES = ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors());
+    private static final int STRIPE_MASK = STRIPES - 1;
+
+    private final RingBuffer[] table;
+
+    ReadBuffer() {
+        table = new RingBuffer[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            table[i] = new RingBuffer();
+        }
+    }
+
+    /**
+     * 记录一次访问
+     */
+    int offer(CacheObj node) {
+        return table[probe() & STRIPE_MASK].offer(node);
+    }
+
+    /**
+     * 回放所有条带中的访问记录，只允许在淘汰锁内调用
+     */
+    void drainTo(Consumer<CacheObj> consumer) {
+        for (RingBuffer buffer : table) {
+            buffer.drainTo(consumer);
+        }
+    }
+
+    private static int probe() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << -Integer.numberOfLeadingZeros(Math.max(x, 1) - 1);
+    }
+
+    /**
+     * 多生产者、单消费者的有界环形缓冲区
+     */
+    private static final class RingBuffer {
+        /**
+         * 只有持有淘汰锁的线程会推进读指针
+         */
+        private volatile long readCounter;
+        private final AtomicLong writeCounter = new AtomicLong();
+        private final AtomicReferenceArray<CacheObj> buffer = new AtomicReferenceArray<>(BUFFER_SIZE);
+
+        int offer(CacheObj node) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            if (tail - head >= BUFFER_SIZE) {
+                return FULL;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                buffer.lazySet((int) (tail & BUFFER_MASK), node);
+                return SUCCESS;
+            }
+            return FAILED;
+        }
+
+        void drainTo(Consumer<CacheObj> consumer) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            while (head != tail) {
+                int index = (int) (head & BUFFER_MASK);
+                CacheObj node = buffer.get(index);
+                if (node == null) {
+                    // 生产者已经占位但还没写入，留到下一次回放
+                    break;
+                }
+                buffer.lazySet(index, null);
+                consumer.accept(node);
+                head++;
+            }
+            readCounter = head;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.pci.hjmos.cache.localCache;
+
+import java.util.function.Predicate;
+
+/**
+ * 分层时间轮，按 CacheObj.ttlTime 把缓存挂到对应时间槽上
+ * 共 5 层，每层的槽宽依次约为 1 秒、1 分钟、1 小时、1.5 天、6 天，过期越远的缓存放在越粗的层上，
+ * 时间推进到某个槽时再逐级下沉，每个缓存的调度、取消、过期都是均摊 O(1)
+ * 非线程安全，所有操作都必须在淘汰锁内执行
+ */
+final class TimerWheel {
+
+    /**
+     * 每层的槽数
+     */
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+
+    /**
+     * 每层单个槽覆盖的毫秒数，取 2 的幂便于移位计算
+     */
+    private static final long[] SPANS = {
+            ceilingPowerOfTwo(1000L),                  // 1.02s
+            ceilingPowerOfTwo(60 * 1000L),             // 1.09m
+            ceilingPowerOfTwo(60 * 60 * 1000L),        // 1.16h
+            ceilingPowerOfTwo(24 * 60 * 60 * 1000L),   // 1.55d
+            BUCKETS[3] * ceilingPowerOfTwo(24 * 60 * 60 * 1000L),  // 6.2d
+            BUCKETS[3] * ceilingPowerOfTwo(24 * 60 * 60 * 1000L),
+    };
+
+    private static final long[] SHIFT = {
+            Long.numberOfTrailingZeros(SPANS[0]),
+            Long.numberOfTrailingZeros(SPANS[1]),
+            Long.numberOfTrailingZeros(SPANS[2]),
+            Long.numberOfTrailingZeros(SPANS[3]),
+            Long.numberOfTrailingZeros(SPANS[4]),
+    };
+
+    /**
+     * 最细一层的槽宽，即过期缓存最迟被回收的延迟
+     */
+    static final long TICK = SPANS[0];
+
+    private final CacheObj[][] wheel;
+
+    /**
+     * 时间轮当前时刻
+     */
+    private long time;
+
+    TimerWheel(long now) {
+        this.time = now;
+        wheel = new CacheObj[BUCKETS.length][];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new CacheObj[BUCKETS[i]];
+            for (int j = 0; j < wheel[i].length; j++) {
+                wheel[i][j] = newSentinel();
+            }
+        }
+    }
+
+    /**
+     * 推进时间轮，到期的缓存交给 evictor 处理
+     * @param now 当前时刻
+     * @param evictor 删除到期缓存，返回是否真正删除
+     * @return 删除个数
+     */
+    int advance(long now, Predicate<CacheObj> evictor) {
+        long previousTime = time;
+        if (now <= previousTime) {
+            return 0;
+        }
+        time = now;
+        int count = 0;
+        for (int i = 0; i < SHIFT.length; i++) {
+            long previousTicks = previousTime >>> SHIFT[i];
+            long currentTicks = now >>> SHIFT[i];
+            long delta = currentTicks - previousTicks;
+            if (delta <= 0L) {
+                break;
+            }
+            count += expire(i, previousTicks, delta, evictor);
+        }
+        return count;
+    }
+
+    /**
+     * 把缓存挂到对应的时间槽上，永不过期的缓存不调度
+     */
+    void schedule(CacheObj node) {
+        if (node.getTtlTime() == -1L) {
+            return;
+        }
+        CacheObj sentinel = findBucket(node.getTtlTime());
+        link(sentinel, node);
+    }
+
+    /**
+     * 从时间槽上摘除，不在时间轮上的缓存直接忽略
+     */
+    void deschedule(CacheObj node) {
+        CacheObj next = node.nextInTimer;
+        if (next != null) {
+            CacheObj prev = node.prevInTimer;
+            next.prevInTimer = prev;
+            prev.nextInTimer = next;
+            node.nextInTimer = null;
+            node.prevInTimer = null;
+        }
+    }
+
+    void clear() {
+        for (CacheObj[] buckets : wheel) {
+            for (CacheObj sentinel : buckets) {
+                CacheObj node = sentinel.nextInTimer;
+                while (node != sentinel) {
+                    CacheObj next = node.nextInTimer;
+                    node.prevInTimer = null;
+                    node.nextInTimer = null;
+                    node = next;
+                }
+                sentinel.prevInTimer = sentinel;
+                sentinel.nextInTimer = sentinel;
+            }
+        }
+    }
+
+    /**
+     * 处理第 index 层从 previousTicks 开始的 delta 个槽（最多转一圈），
+     * 已到期的交给 evictor，未到期的重新调度到更细的层上
+     */
+    private int expire(int index, long previousTicks, long delta, Predicate<CacheObj> evictor) {
+        CacheObj[] timerWheel = wheel[index];
+        int mask = timerWheel.length - 1;
+        int steps = (int) Math.min(1 + delta, timerWheel.length);
+        int start = (int) (previousTicks & mask);
+        int end = start + steps;
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            CacheObj sentinel = timerWheel[i & mask];
+            CacheObj node = sentinel.nextInTimer;
+            sentinel.prevInTimer = sentinel;
+            sentinel.nextInTimer = sentinel;
+            while (node != sentinel) {
+                CacheObj next = node.nextInTimer;
+                node.prevInTimer = null;
+                node.nextInTimer = null;
+                if (!node.isExpired(time)) {
+                    schedule(node);
+                } else if (evictor.test(node)) {
+                    count++;
+                }
+                node = next;
+            }
+        }
+        return count;
+    }
+
+    private CacheObj findBucket(long ttlTime) {
+        // 已经到期的缓存放到当前槽，下次推进时处理
+        long deadline = Math.max(ttlTime, time);
+        long duration = deadline - time;
+        int length = wheel.length - 1;
+        for (int i = 0; i < length; i++) {
+            if (duration < SPANS[i + 1]) {
+                long ticks = deadline >>> SHIFT[i];
+                int index = (int) (ticks & (wheel[i].length - 1));
+                return wheel[i][index];
+            }
+        }
+        return wheel[length][0];
+    }
+
+    /**
+     * 添加到槽尾
+     */
+    private static void link(CacheObj sentinel, CacheObj node) {
+        node.prevInTimer = sentinel.prevInTimer;
+        node.nextInTimer = sentinel;
+        sentinel.prevInTimer.nextInTimer = node;
+        sentinel.prevInTimer = node;
+    }
+
+    private static CacheObj newSentinel() {
+        CacheObj sentinel = new CacheObj(null, null, -1L, 0);
+        sentinel.prevInTimer = sentinel;
+        sentinel.nextInTimer = sentinel;
+        return sentinel;
+    }
+
+    private static long ceilingPowerOfTwo(long x) {
+        return 1L << -Long.numberOfLeadingZeros(x - 1);
+    }
+}
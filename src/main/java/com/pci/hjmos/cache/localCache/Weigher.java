@@ -0,0 +1,49 @@
+package com.pci.hjmos.cache.localCache;
+
+import com.pci.hjmos.cache.utils.JsonUtils;
+
+/**
+ * 缓存权重计算器，配合最大权重限制本地缓存占用的内存
+ * 注册为 Spring Bean 后会替换默认的权重计算方式
+ */
+@FunctionalInterface
+public interface Weigher {
+
+    /**
+     * 计算缓存的权重，只在写入时计算一次
+     * @param key 缓存键
+     * @param value 缓存值
+     * @return 权重，不能为负数
+     */
+    int weigh(String key, Object value);
+
+    /**
+     * 每个缓存的权重都为 1，此时最大权重等价于最大个数
+     */
+    static Weigher singleton() {
+        return (key, value) -> 1;
+    }
+
+    /**
+     * 按字节数估算权重：字符串按 UTF-16 计算，字节数组取长度，其它对象取 json 序列化后的长度
+     */
+    static Weigher estimatedBytes() {
+        return (key, value) -> {
+            int keyBytes = key.length() << 1;
+            if (value == null) {
+                return keyBytes;
+            }
+            if (value instanceof String) {
+                return keyBytes + (((String) value).length() << 1);
+            }
+            if (value instanceof byte[]) {
+                return keyBytes + ((byte[]) value).length;
+            }
+            if (value instanceof Number || value instanceof Boolean) {
+                return keyBytes + 16;
+            }
+            byte[] json = JsonUtils.toJsonByte(value);
+            return keyBytes + (json == null ? 0 : json.length);
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package com.pci.hjmos.cache.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步缓存接口，返回 CompletableFuture，由 Lettuce 的事件循环线程完成，调用线程不等待 Redis 返回
+ * 可以同时发出多个请求再合并结果，不需要为并行查询扩大线程池
+ * 回调默认在 Lettuce 的事件循环线程上执行，耗时的后续处理应使用 thenXxxAsync 切换到业务线程池
+ */
+public interface AsyncCacheService {
+
+    /**
+     * --------------------------------- String 操作---------------------------------
+     */
+    /**
+     * 增加接口
+     * @param key 缓存key
+     * @param value 缓存值
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> set(String key, Object value);
+
+    /**
+     * 增加接口,附带过期时间（SET EX）
+     * @param key 缓存key
+     * @param value 缓存值
+     * @param expireTime  存活时间(秒s)
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> set(String key, Object value, long expireTime);
+
+    /**
+     * 批量增加
+     * @param maps 缓存的键值对
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> multiSet(Map<String, Object> maps);
+
+    /**
+     * 读取缓存
+     * @param key 缓存key
+     * @return 缓存值，不存在为 null
+     */
+    CompletableFuture<Object> get(String key);
+
+    /**
+     * 批量读取
+     * @param keys 缓存key集合
+     * @return 缓存值集合，顺序与 keys 一致，不存在的为 null
+     */
+    CompletableFuture<List<Object>> multiGet(Collection<String> keys);
+
+    /**
+     * 删除缓存
+     * @param key 缓存key
+     * @return 是否删除
+     */
+    CompletableFuture<Boolean> delete(String key);
+
+    /**
+     * --------------------------------- Hash 操作---------------------------------
+     */
+    /**
+     * 往hash中添加数据
+     * @param key 缓存key
+     * @param hashKey hash中的key
+     * @param hashValue hash中的value
+     * @return 是否新增
+     */
+    CompletableFuture<Boolean> hPut(String key, String hashKey, Object hashValue);
+
+    /**
+     * 获取hash中的数据
+     * @param key 缓存key
+     * @param hashKey hash中的key
+     * @return hash中的value，不存在为 null
+     */
+    CompletableFuture<Object> hGet(String key, String hashKey);
+
+    /**
+     * 获取hash中的所有数据
+     * @param key 缓存key
+     * @return 所有键值对
+     */
+    CompletableFuture<Map<Object, Object>> hEntries(String key);
+
+    /**
+     * --------------------------------- List 操作---------------------------------
+     */
+    /**
+     * 向集合中添加元素
+     * @param key 缓存key
+     * @param value 添加的元素
+     * @return 新增后集合的元素个数
+     */
+    CompletableFuture<Long> lSet(String key, Object value);
+
+    /**
+     * 获取片段集合（闭区间）
+     * @param key 缓存key
+     * @param start 开始节点,第一个元素为0
+     * @param end 结束节点
+     * @return 集合
+     */
+    CompletableFuture<List<Object>> lGet(String key, long start, long end);
+
+    /**
+     * ---------------------------------(通用) ---------------------------------
+     */
+    /**
+     * 设置过期时间 单位（秒）
+     * @param key  缓存键
+     * @param expireTime  过期时间
+     * @return 是否成功
+     */
+    CompletableFuture<Boolean> expireKey(String key, long expireTime);
+
+    /**
+     * 判断key是否存在
+     * @param key 缓存key
+     * @return 是否存在
+     */
+    CompletableFuture<Boolean> existsKey(String key);
+
+    /**
+     * 批量删除
+     * @param keys  删除key的集合
+     * @return  成功删除的个数
+     */
+    CompletableFuture<Long> batchDelete(Collection<String> keys);
+}
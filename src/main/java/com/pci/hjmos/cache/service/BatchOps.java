@@ -0,0 +1,72 @@
+package com.pci.hjmos.cache.service;
+
+/**
+ * 管道批量操作，由 CacheService.pipeline 提供
+ * 每个方法只把命令加入队列，回调结束后按顺序分批发送，每条命令在结果列表中对应一个结果
+ */
+public interface BatchOps {
+
+    /**
+     * 增加，结果为 Boolean
+     * @param key 缓存key
+     * @param value 缓存值
+     */
+    BatchOps set(String key, Object value);
+
+    /**
+     * 增加并设置存活时间（SET EX），结果为 Boolean
+     * @param key 缓存key
+     * @param value 缓存值
+     * @param expireTime 存活时间(秒s)
+     */
+    BatchOps set(String key, Object value, long expireTime);
+
+    /**
+     * 获取，结果为缓存值，不存在为 null
+     * @param key 缓存key
+     */
+    BatchOps get(String key);
+
+    /**
+     * 删除，结果为 Long，删除的个数
+     * @param key 缓存key
+     */
+    BatchOps delete(String key);
+
+    /**
+     * 设置过期时间，结果为 Boolean
+     * @param key 缓存key
+     * @param expireTime 存活时间(秒s)
+     */
+    BatchOps expireKey(String key, long expireTime);
+
+    /**
+     * 往 hash 中添加数据，结果为 Boolean
+     * @param key 缓存key
+     * @param hashKey hash 中的 key
+     * @param hashValue hash 中的 value
+     */
+    BatchOps hPut(String key, String hashKey, Object hashValue);
+
+    /**
+     * 获取 hash 中的数据，结果为缓存值，不存在为 null
+     * @param key 缓存key
+     * @param hashKey hash 中的 key
+     */
+    BatchOps hGet(String key, String hashKey);
+
+    /**
+     * 向集合中添加元素，结果为 Long，新增后集合的元素个数
+     * @param key 缓存key
+     * @param value 添加的元素
+     */
+    BatchOps lSet(String key, Object value);
+
+    /**
+     * 向有序集合中添加元素，结果为 Boolean，是否新增
+     * @param key 缓存key
+     * @param value 添加的元素
+     * @param score 分值
+     */
+    BatchOps zAdd(String key, Object value, double score);
+}
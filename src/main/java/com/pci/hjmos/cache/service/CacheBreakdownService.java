@@ -6,7 +6,7 @@ import org.springframework.stereotype.Component;
 public interface CacheBreakdownService {
 
     /**
-     * 缓存击穿,(雪崩解决)，使用线程锁，保证同一时刻只能有同一种key值能够进行 db数据的获取
+     * 缓存击穿,(雪崩解决)，按 key 合并加载，保证同一时刻同一个key值只有一个线程进行 db数据的获取
      * @param key 缓存键
      * @return
      * @throws InterruptedException
@@ -16,7 +16,7 @@ public interface CacheBreakdownService {
     /**
      * 缓存击穿,雪崩解决 ，分布式锁，保证同一时刻只能有同一种key值能够进行 db数据的获取
      * @param key  缓存键
-     * @param localKey
+     * @param localKey 锁键，已不再使用
      * @return
      */
     String cacheBreakdown_2(String key,String localKey);
@@ -29,11 +29,18 @@ public interface CacheBreakdownService {
     String cacheBreakdown_3(String key);
 
     /**
-     * 雪崩解决 , 缓存击穿 hystrix 降级操作
+     * 雪崩解决 , 缓存击穿 熔断降级操作，Redis 不可用时读本地降级缓存中的旧值，没有旧值时直接返回繁忙提示，不再访问 db
      * @param key 缓存键
      * @return
      * @throws Exception
      */
     String cacheBreakdown_4(String key) throws Exception;
 
+    /**
+     * 缓存击穿,雪崩解决 ，提前刷新，热点key快过期前由后台线程重新获取 db数据，读取方一直拿到缓存中的值，不需要等待加载
+     * @param key 缓存键
+     * @return
+     */
+    String cacheBreakdown_5(String key);
+
 }
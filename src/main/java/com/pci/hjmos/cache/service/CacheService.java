@@ -8,6 +8,9 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Component
 public interface CacheService {
@@ -43,6 +46,42 @@ public interface CacheService {
      */
     Object get(String key);
 
+    /**
+     * 获取值，缓存不存在时调用 loader 加载并写入缓存 String类型
+     * 同一个 key 并发未命中时只有一个线程执行 loader，其余线程共用它的结果，不同 key 的加载互不阻塞；
+     * loader 返回 null 时不写入缓存
+     * @param key 缓存key
+     * @param expireTime 过期时间(秒s)
+     * @param loader 加载方法，如查询数据库
+     * @return 缓存值或加载的值
+     */
+    Object getOrLoad(String key, long expireTime, Supplier<?> loader);
+
+    /**
+     * 获取值，缓存不存在时跨节点合并加载 String类型
+     * 本节点内先按 key 合并，再用带租期和持有者标识的分布式锁保证所有节点同一时刻只有一个在执行 loader；
+     * 其它节点订阅加载完成通知，值写入后立即被唤醒；每等待 hjmos.cache.loader.max-wait 重新检查一次加载锁，
+     * 锁仍被持有则继续等待，锁已释放或租期到期（持有者宕机）时自己加锁加载
+     * @param key 缓存key
+     * @param expireTime 过期时间(秒s)
+     * @param loader 加载方法，如查询数据库
+     * @return 缓存值或加载的值
+     */
+    Object getOrLoadDistributed(String key, long expireTime, Supplier<?> loader);
+
+    /**
+     * 获取值，写入超过 refreshAfter 后提前刷新 String类型
+     * Redis 中按 expireTime 过期；写入超过 refreshAfter（即剩余存活时间少于 expireTime - refreshAfter）后，
+     * 读取仍立即返回当前值，同时由一个后台线程调用 loader 重新写入，热点 key 不会因为过期出现大量同时未命中；
+     * 缓存不存在时与 getOrLoad 一样同步加载；后台刷新通过加载锁保证所有节点只刷新一次，队列已满时放弃本次刷新
+     * @param key 缓存key
+     * @param refreshAfter 写入多久后刷新(秒s)，应小于 expireTime
+     * @param expireTime 过期时间(秒s)
+     * @param loader 加载方法，如查询数据库
+     * @return 缓存值或加载的值
+     */
+    Object getOrRefresh(String key, long refreshAfter, long expireTime, Supplier<?> loader);
+
     /**
      * 批量获取
      * @param keys 缓存key集合
@@ -97,6 +136,15 @@ public interface CacheService {
      */
     Map<Object, Object> hEntries(String key) ;
 
+    /**
+     * 基于 HSCAN 惰性遍历 hash 中的属性，内存占用与批大小相关，与 hash 大小无关
+     * 返回的 Stream 持有连接，用完必须关闭；遍历期间有写入时同一个属性可能出现多次
+     * @param key 缓存key
+     * @param batchSize 每次 HSCAN 的 COUNT 提示值
+     * @return 属性的惰性流
+     */
+    Stream<Map.Entry<Object, Object>> hScan(String key, int batchSize);
+
     /**
      * key的hash 中是否存在hashKey属性
      * @param key 缓存key
@@ -174,6 +222,15 @@ public interface CacheService {
      */
     List<Object> lGet(String key, long start, long end) ;
 
+    /**
+     * 分批 LRANGE 惰性遍历整个集合，取完一批再取下一批
+     * 遍历期间集合头部有增删时，元素可能重复或遗漏
+     * @param key 缓存key
+     * @param batchSize 每批读取的元素个数
+     * @return 元素的惰性流
+     */
+    Stream<Object> lScan(String key, int batchSize);
+
     /**
      *  --------------------------------- Set 操作---------------------------------
      */
@@ -205,6 +262,15 @@ public interface CacheService {
      */
     Set<Object> members(String key);
 
+    /**
+     * 基于 SSCAN 惰性遍历集合中的元素
+     * 返回的 Stream 持有连接，用完必须关闭；遍历期间有写入时同一个元素可能出现多次
+     * @param key 缓存键
+     * @param batchSize 每次 SSCAN 的 COUNT 提示值
+     * @return 元素的惰性流
+     */
+    Stream<Object> sScan(String key, int batchSize);
+
     /**
      * --------------------------------- ZSet 操作---------------------------------
      */
@@ -277,6 +343,15 @@ public interface CacheService {
      */
     Set<Object> rangeByScore(String key, double min, double max);
 
+    /**
+     * 基于 ZSCAN 惰性遍历有序集合中的元素和分数，不保证按分数排序
+     * 返回的 Stream 持有连接，用完必须关闭；遍历期间有写入时同一个元素可能出现多次
+     * @param key  缓存键
+     * @param batchSize 每次 ZSCAN 的 COUNT 提示值
+     * @return 元素和分数的惰性流
+     */
+    Stream<ZSetOperations.TypedTuple<Object>> zScan(String key, int batchSize);
+
 
     /**
      * ---------------------------------(通用) ---------------------------------
@@ -302,6 +377,23 @@ public interface CacheService {
      */
 //    Set<String> keys();
 
+    /**
+     * 按模式遍历 key，基于 SCAN 游标惰性读取，集群模式下遍历所有主节点
+     * 返回的 Stream 持有连接，用完必须关闭，建议使用 try-with-resources；遍历期间有写入时同一个 key 可能出现多次
+     * @param pattern 匹配模式，如 user:*
+     * @param batchSize 每次 SCAN 的 COUNT 提示值
+     * @return key 的惰性流
+     */
+    Stream<String> scanKeys(String pattern, int batchSize);
+
+    /**
+     * 按模式删除 key，边遍历边按批 UNLINK，删除速度受 hjmos.cache.scan.delete-rate 限制
+     * @param pattern 匹配模式，如 user:*
+     * @param batchSize 每批删除的 key 个数
+     * @return 删除的个数
+     */
+    long deleteByPattern(String pattern, int batchSize);
+
     /**
      * 判断key是否存在
      * @param key 缓存key
@@ -317,19 +409,49 @@ public interface CacheService {
     Long batchDelete(Collection<String> keys);
 
     /**
-     * 切换数据库
+     * 管道批量执行，回调中加入的命令按 hjmos.cache.pipeline.chunk-size 分批发送，每批只有一次往返
+     * 管道中的命令不是原子执行的
+     * @param batch 加入命令的回调
+     * @return 每条命令的结果，顺序与加入顺序一致，结果类型见 BatchOps 各方法说明
+     */
+    List<Object> pipeline(Consumer<BatchOps> batch);
+
+    /**
+     * 切换数据库，已不再支持，调用时抛出 UnsupportedOperationException
+     * 本服务是单例，切换会影响所有并发调用方，包括正在进行中的加锁、释放锁等多步操作，
+     * 使用 forDatabase 获取只操作指定库的服务代替
      * @param indexDB  数据库地址
+     * @deprecated 改用 {@link #forDatabase(int)}
      */
+    @Deprecated
     void selectDatabase(int indexDB);
 
     /**
-     * 分布式锁获取 锁
+     * 获取只操作指定数据库的服务，每个库的连接第一次使用时创建，之后复用
+     * 可以单次调用 forDatabase(1).get(key)，也可以保存下来在一段逻辑中反复使用；
+     * 二级缓存开启时，其它库的服务不经过本地一级缓存；集群模式只有 0 号库
+     * @param indexDB  数据库地址
+     * @return 指定数据库的服务，当前操作的就是该库时返回自身
+     */
+    CacheService forDatabase(int indexDB);
+
+    /**
+     * 分布式锁获取 锁，锁的值随机生成，只能等待超时自动解锁；需要主动释放时用 setLock(key, requestId, expire)
      * @param key 锁
-     * @param expire 时间  ;这里设置时间是为了防止死锁，超时自动解锁
+     * @param expire 时间(毫秒ms)  ;这里设置时间是为了防止死锁，超时自动解锁
      * @return 是否获取到
      */
     boolean setLock(String key, long expire);
 
+    /**
+     * 分布式锁获取 锁，锁的值为 requestId，释放时用同一个 requestId 调用 releaseDistributedLock
+     * @param key 锁
+     * @param requestId 请求标识
+     * @param expire 时间(毫秒ms)  ;这里设置时间是为了防止死锁，超时自动解锁
+     * @return 是否获取到
+     */
+    boolean setLock(String key, String requestId, long expire);
+
     /**
      * 释放分布式锁
      * @param lockKey 锁
@@ -0,0 +1,172 @@
+package com.pci.hjmos.cache.service;
+
+import org.springframework.data.redis.core.ZSetOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 响应式缓存接口，基于 Lettuce 的响应式连接，调用不占用线程等待 Redis 返回
+ * 缓存值不存在时返回空的 Mono；序列化方式与 CacheService 相同，两者写入的数据可以互相读取
+ * 开启二级缓存时，这里的写入不会直接失效一级缓存，需同时开启 hjmos.cache.invalidation.enabled
+ */
+public interface ReactiveCacheService {
+
+    /**
+     * --------------------------------- String 操作---------------------------------
+     */
+    /**
+     * 增加接口
+     * @param key 缓存key
+     * @param value 缓存值
+     * @return 是否成功
+     */
+    Mono<Boolean> set(String key, Object value);
+
+    /**
+     * 增加接口,附带过期时间（SET EX）
+     * @param key 缓存key
+     * @param value 缓存值
+     * @param expireTime  存活时间(秒s)
+     * @return 是否成功
+     */
+    Mono<Boolean> set(String key, Object value, long expireTime);
+
+    /**
+     * 批量增加
+     * @param maps 缓存的键值对
+     * @return 是否成功
+     */
+    Mono<Boolean> multiSet(Map<String, Object> maps);
+
+    /**
+     * 读取缓存
+     * @param key 缓存key
+     * @return 缓存值，不存在时为空
+     */
+    Mono<Object> get(String key);
+
+    /**
+     * 批量读取
+     * @param keys 缓存key集合
+     * @return 缓存值集合，顺序与 keys 一致，不存在的为 null
+     */
+    Mono<List<Object>> multiGet(Collection<String> keys);
+
+    /**
+     * 删除缓存
+     * @param key 缓存key
+     * @return 是否删除
+     */
+    Mono<Boolean> delete(String key);
+
+    /**
+     * --------------------------------- Hash 操作---------------------------------
+     */
+    /**
+     * 往hash中添加数据
+     * @param key 缓存key
+     * @param hashKey hash中的key
+     * @param hashValue hash中的value
+     * @return 是否新增
+     */
+    Mono<Boolean> hPut(String key, String hashKey, Object hashValue);
+
+    /**
+     * 获取hash中的数据
+     * @param key 缓存key
+     * @param hashKey hash中的key
+     * @return hash中的value，不存在时为空
+     */
+    Mono<Object> hGet(String key, String hashKey);
+
+    /**
+     * 获取hash中的所有数据
+     * @param key 缓存key
+     * @return 所有键值对
+     */
+    Flux<Map.Entry<Object, Object>> hEntries(String key);
+
+    /**
+     * 基于 HSCAN 遍历hash中的数据，下游请求时才读取下一批
+     * @param key 缓存key
+     * @param batchSize 每次 HSCAN 的 COUNT 提示值
+     * @return 所有键值对
+     */
+    Flux<Map.Entry<Object, Object>> hScan(String key, int batchSize);
+
+    /**
+     * --------------------------------- List 操作---------------------------------
+     */
+    /**
+     * 向集合中添加元素
+     * @param key 缓存key
+     * @param value 添加的元素
+     * @return 新增后集合的元素个数
+     */
+    Mono<Long> lSet(String key, Object value);
+
+    /**
+     * 获取片段集合（闭区间）
+     * @param key 缓存key
+     * @param start 开始节点,第一个元素为0
+     * @param end 结束节点
+     * @return 元素
+     */
+    Flux<Object> lGet(String key, long start, long end);
+
+    /**
+     * 分批 LRANGE 遍历整个集合，下游消费完一批才读取下一批
+     * @param key 缓存key
+     * @param batchSize 每批读取的元素个数
+     * @return 元素
+     */
+    Flux<Object> lScan(String key, int batchSize);
+
+    /**
+     * --------------------------------- Set / ZSet 操作---------------------------------
+     */
+    /**
+     * 基于 SSCAN 遍历集合中的元素，下游请求时才读取下一批
+     * @param key 缓存key
+     * @param batchSize 每次 SSCAN 的 COUNT 提示值
+     * @return 元素
+     */
+    Flux<Object> sScan(String key, int batchSize);
+
+    /**
+     * 基于 ZSCAN 遍历有序集合中的元素和分数，下游请求时才读取下一批
+     * @param key 缓存key
+     * @param batchSize 每次 ZSCAN 的 COUNT 提示值
+     * @return 元素和分数
+     */
+    Flux<ZSetOperations.TypedTuple<Object>> zScan(String key, int batchSize);
+
+    /**
+     * ---------------------------------(通用) ---------------------------------
+     */
+    /**
+     * 设置过期时间 单位（秒）
+     * @param key  缓存键
+     * @param expireTime  过期时间
+     * @return 是否成功
+     */
+    Mono<Boolean> expireKey(String key, long expireTime);
+
+    /**
+     * 判断key是否存在
+     * @param key 缓存key
+     * @return 是否存在
+     */
+    Mono<Boolean> existsKey(String key);
+
+    /**
+     * 批量删除
+     * @param keys  删除key的集合
+     * @return  成功删除的个数
+     */
+    Mono<Long> batchDelete(Collection<String> keys);
+}
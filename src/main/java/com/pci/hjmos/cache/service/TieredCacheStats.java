@@ -0,0 +1,76 @@
+package com.pci.hjmos.cache.service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 二级缓存命中统计
+ * 一级（本地）缓存统计所有读请求，二级（Redis）缓存只统计一级未命中的读请求
+ */
+public class TieredCacheStats {
+
+    private final LongAdder l1Hits = new LongAdder();
+    private final LongAdder l1Misses = new LongAdder();
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder l2Misses = new LongAdder();
+
+    public void recordL1Hit() {
+        l1Hits.increment();
+    }
+
+    public void recordL1Miss() {
+        l1Misses.increment();
+    }
+
+    public void recordL2Hit() {
+        l2Hits.increment();
+    }
+
+    public void recordL2Miss() {
+        l2Misses.increment();
+    }
+
+    public long getL1HitCount() {
+        return l1Hits.sum();
+    }
+
+    public long getL1MissCount() {
+        return l1Misses.sum();
+    }
+
+    public long getL2HitCount() {
+        return l2Hits.sum();
+    }
+
+    public long getL2MissCount() {
+        return l2Misses.sum();
+    }
+
+    /**
+     * 一级缓存命中率，没有请求时为 0
+     */
+    public double l1HitRate() {
+        return ratio(getL1HitCount(), getL1MissCount());
+    }
+
+    /**
+     * 二级缓存命中率，没有请求时为 0
+     */
+    public double l2HitRate() {
+        return ratio(getL2HitCount(), getL2MissCount());
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "TieredCacheStats {" +
+                "l1Hits = " + getL1HitCount() +
+                ", l1Misses = " + getL1MissCount() +
+                ", l2Hits = " + getL2HitCount() +
+                ", l2Misses = " + getL2MissCount() +
+                '}';
+    }
+}
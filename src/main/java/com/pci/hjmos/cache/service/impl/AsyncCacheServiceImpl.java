@@ -0,0 +1,94 @@
+package com.pci.hjmos.cache.service.impl;
+
+import com.pci.hjmos.cache.service.AsyncCacheService;
+import com.pci.hjmos.cache.service.ReactiveCacheService;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 基于 ReactiveCacheService 实现，Mono 订阅后转换为 CompletableFuture
+ */
+@Service
+public class AsyncCacheServiceImpl implements AsyncCacheService {
+
+    @Resource
+    ReactiveCacheService reactiveCacheService;
+
+    @Override
+    public CompletableFuture<Boolean> set(String key, Object value) {
+        return reactiveCacheService.set(key, value).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> set(String key, Object value, long expireTime) {
+        return reactiveCacheService.set(key, value, expireTime).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> multiSet(Map<String, Object> maps) {
+        return reactiveCacheService.multiSet(maps).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Object> get(String key) {
+        return reactiveCacheService.get(key).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<List<Object>> multiGet(Collection<String> keys) {
+        return reactiveCacheService.multiGet(keys).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> delete(String key) {
+        return reactiveCacheService.delete(key).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hPut(String key, String hashKey, Object hashValue) {
+        return reactiveCacheService.hPut(key, hashKey, hashValue).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Object> hGet(String key, String hashKey) {
+        return reactiveCacheService.hGet(key, hashKey).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Map<Object, Object>> hEntries(String key) {
+        return reactiveCacheService.hEntries(key)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue, LinkedHashMap::new)
+                .toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> lSet(String key, Object value) {
+        return reactiveCacheService.lSet(key, value).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<List<Object>> lGet(String key, long start, long end) {
+        return reactiveCacheService.lGet(key, start, end).collectList().toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> expireKey(String key, long expireTime) {
+        return reactiveCacheService.expireKey(key, expireTime).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsKey(String key) {
+        return reactiveCacheService.existsKey(key).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> batchDelete(Collection<String> keys) {
+        return reactiveCacheService.batchDelete(keys).toFuture();
+    }
+}
@@ -1,87 +1,85 @@
 package com.pci.hjmos.cache.service.impl;
 
-import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
+import com.pci.hjmos.cache.config.CacheProperties;
+import com.pci.hjmos.cache.config.JitterType;
 import com.pci.hjmos.cache.service.CacheBreakdownService;
+import com.pci.hjmos.cache.service.CacheService;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
-import java.util.Random;
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
+@Log4j2
 @Service
 public class CacheBreakdownServiceImpl implements CacheBreakdownService {
 
     @Resource
     RedisTemplate<String, Object> redisTemplate;
 
-    private Lock lock = new ReentrantLock();
+    @Resource
+    CacheService cacheService;
+
+    /**
+     * 开启 hjmos.cache.breaker.enabled 后存在
+     */
+    @Autowired(required = false)
+    CircuitBreaker circuitBreaker;
+
+    private static final CacheProperties.Jitter AVALANCHE_JITTER = new CacheProperties.Jitter();
+
+    static {
+        AVALANCHE_JITTER.setType(JitterType.UNIFORM);
+        AVALANCHE_JITTER.setMax(Duration.ofMinutes(5));
+    }
 
     /**
-     * 缓存击穿,雪崩解决，使用线程锁，保证同一时刻只能有同一种key值能够进行 db数据的获取
+     * 缓存击穿,雪崩解决，按 key 合并加载，同一个 key 同一时刻只有一个线程进行 db数据的获取，其余线程共用结果，不同 key 互不阻塞
      * @param key 缓存键
      * @return
-     * @throws InterruptedException
      */
     @Override
-    public String cacheBreakdown_1(String key) throws InterruptedException {
-        Object value = redisTemplate.opsForValue().get(key);
+    public String cacheBreakdown_1(String key) {
+        Object value = cacheService.get(key);
         if(value != null){
             return value.toString()+" --> 缓存,key:"+key+",线程："+Thread.currentThread().getName();
         }
-        if(lock.tryLock()){
-            String dataBaseValue;
-            try {
-                //数据库获取，并存在redis 中
-                dataBaseValue = "数据库中的值";
-                System.out.println("互斥锁 -- 获取数据库中的值");
-                redisTemplate.opsForValue().set(key,dataBaseValue,60,TimeUnit.MINUTES);
-            }finally {
-                lock.unlock();
-            }
-            return dataBaseValue+" --> 数据库,key:"+key+",线程："+Thread.currentThread().getName();
-        }
-        TimeUnit.SECONDS.sleep(2);
-        return cacheBreakdown_1(key);
+        Object dataBaseValue = cacheService.getOrLoad(key, TimeUnit.MINUTES.toSeconds(60), () -> {
+            //数据库获取，并存在redis 中
+            log.debug("单飞加载 -- 获取数据库中的值, key -> {}", key);
+            return "数据库中的值";
+        });
+        return dataBaseValue+" --> 数据库,key:"+key+",线程："+Thread.currentThread().getName();
     }
 
     /**
      * 缓存击穿,雪崩解决 ，分布式锁，保证同一时刻只能有同一种key值能够进行 db数据的获取
+     * 锁带租期和持有者标识，持有者宕机后租期到期自动释放；等待方订阅加载完成通知，值写入后立即返回，不再固定休眠重试
      * @param key 缓存键
+     * @param localKey 锁键，已不再使用，锁键为 key 加 hjmos.cache.loader.lock-suffix
      * @return
      */
     @Override
     public String cacheBreakdown_2(String key, String localKey) {
-        System.out.println("线程开始");
-        Object value = redisTemplate.opsForValue().get(key);
+        Object value = cacheService.get(key);
         if (value!=null){
             return value.toString()+" --> 缓存,key:"+key+",线程："+Thread.currentThread().getName();
         }
-        Boolean isSuccess=redisTemplate.opsForValue().setIfAbsent(localKey,"easy");
-        System.out.println(Thread.currentThread().getName()+"isSuccess : "+isSuccess);
-        if (isSuccess){
+        Object dataBaseValue = cacheService.getOrLoadDistributed(key, TimeUnit.MINUTES.toSeconds(60), () -> {
             //数据库获取信息，并放进缓存中
-            String dataBaseValue = "数据库中的值";
-            System.out.println("分布式锁 -- 获取数据库中的值");
-            redisTemplate.opsForValue().set(key,dataBaseValue,60,TimeUnit.MINUTES);
-            redisTemplate.delete(localKey);
-            return dataBaseValue+" --> 数据库,key:"+key+",线程："+Thread.currentThread().getName();
-        }else{
-            try {
-                System.out.println(Thread.currentThread().getName()+"\t开始等待");
-                TimeUnit.SECONDS.sleep(5);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-            return  cacheBreakdown_2(key,localKey);
-        }
+            log.debug("分布式锁 -- 获取数据库中的值");
+            return "数据库中的值";
+        });
+        return dataBaseValue+" --> 数据库,key:"+key+",线程："+Thread.currentThread().getName();
     }
 
     /**
      * 雪崩解决 增加随机过期时间，减少缓存同时消失的概率
+     * 过期时间为 60 分钟再随机延长 0~5 分钟，每次调用独立随机，同时写入的 key 不会在同一秒过期
      * @param key  缓存键
      * @return
      */
@@ -93,34 +91,46 @@ public class CacheBreakdownServiceImpl implements CacheBreakdownService {
             return value.toString()+"-->缓存";
         }
         String dataBaseValue = "数据库中的值";
-        Random random = new Random(100);
-        long expireTime = 60 + random.nextInt(6);
-        System.out.println("随机过期时间 -- 获取数据库中的值");
-        redisTemplate.opsForValue().set(key,dataBaseValue,expireTime,TimeUnit.MINUTES);
+        long expireTime = TimeUnit.MINUTES.toSeconds(60) + ExpiryPolicy.jitter(TimeUnit.MINUTES.toSeconds(60), AVALANCHE_JITTER);
+        log.debug("随机过期时间 -- 获取数据库中的值");
+        redisTemplate.opsForValue().set(key,dataBaseValue,expireTime,TimeUnit.SECONDS);
         return dataBaseValue+"-->数据库";
     }
 
     /**
-     * 雪崩解决 , 缓存击穿 hystrix 降级操作
+     * 雪崩解决 , 缓存击穿 熔断降级操作，读写经由 cacheService 的熔断器执行，熔断打开时 get 返回本地降级缓存中的旧值
      * @param key 缓存键
      * @return
      * @throws Exception
      */
     @Override
-    @HystrixCommand(fallbackMethod = "hystrixString")
     public String cacheBreakdown_4(String key) throws Exception {
-        Object value = redisTemplate.opsForValue().get(key);
+        Object value = cacheService.get(key);
         if (value!=null){
             return value.toString() + "-->缓存";
         }
+        // 熔断未关闭时没有旧值可用，直接返回，不把压力转到 db
+        if (circuitBreaker != null && circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+            return "服务器繁忙！";
+        }
         String dataBaseValue="数据库中的值";
-        System.out.println("hystrix -- 获取数据库中的值");
-        redisTemplate.opsForValue().set(key,dataBaseValue,60, TimeUnit.MINUTES);
-        throw new Exception("adfs");
+        log.debug("熔断降级 -- 获取数据库中的值, key -> {}", key);
+        cacheService.set(key, dataBaseValue, TimeUnit.MINUTES.toSeconds(60));
+        return dataBaseValue+"-->数据库";
     }
 
-    public String hystrixString(String key){
-        return "服务器繁忙！";
+    /**
+     * 缓存击穿,雪崩解决 ，提前刷新，60分钟过期，写入50分钟后读取时由后台线程刷新
+     * @param key 缓存键
+     * @return
+     */
+    @Override
+    public String cacheBreakdown_5(String key) {
+        Object value = cacheService.getOrRefresh(key, TimeUnit.MINUTES.toSeconds(50), TimeUnit.MINUTES.toSeconds(60), () -> {
+            log.debug("提前刷新 -- 获取数据库中的值, key -> {}", key);
+            return "数据库中的值";
+        });
+        return value+" --> key:"+key+",线程："+Thread.currentThread().getName();
     }
 
 }
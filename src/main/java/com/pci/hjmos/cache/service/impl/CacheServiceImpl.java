@@ -1,58 +1,220 @@
 package com.pci.hjmos.cache.service.impl;
 
+import com.google.common.util.concurrent.RateLimiter;
+import com.pci.hjmos.cache.config.CacheProperties;
+import com.pci.hjmos.cache.listener.LoadCompletionListener;
+import com.pci.hjmos.cache.service.BatchOps;
 import com.pci.hjmos.cache.service.CacheService;
-import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.ReturnType;
 import org.springframework.data.redis.core.*;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
-import redis.clients.jedis.Jedis;
-import redis.clients.jedis.JedisCluster;
-import redis.clients.jedis.JedisCommands;
 
 import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 public class CacheServiceImpl implements CacheService {
 
+    /**
+     * 操作的数据库的模板，创建后不再改变
+     */
     @Resource
     RedisTemplate<String, Object> redisTemplate;
 
+    /**
+     * 操作的数据库下标，-1 表示默认数据库
+     */
+    int database = -1;
+
+    @Resource
+    CacheProperties cacheProperties;
+
+    /**
+     * 开启 hjmos.cache.coalescing.enabled 后存在
+     */
+    @Autowired(required = false)
+    GetCoalescer getCoalescer;
+
+    /**
+     * 开启 hjmos.cache.breaker.enabled 后存在，String 类型的读写、删除经由熔断器执行
+     */
+    @Autowired(required = false)
+    CircuitBreaker circuitBreaker;
+
+    @Resource
+    ClusterBatchExecutor clusterBatchExecutor;
+
+    @Resource
+    RedisDatabaseRouter databaseRouter;
+
+    @Resource
+    DriverCommands driverCommands;
+
+    @Resource
+    LoadCompletionListener loadCompletionListener;
+
+    @Resource
+    RefreshAheadExecutor refreshAheadExecutor;
+
+    @Resource
+    ExpiryPolicy expiryPolicy;
+
+    /**
+     * 按数据库下标绑定的服务，与 forDatabase 返回的服务共用
+     */
+    Map<Integer, CacheService> databaseServices = new ConcurrentHashMap<>();
+
+    /**
+     * 操作默认数据库的服务，即 Spring 创建的单例，forDatabase 指定默认库时返回
+     */
+    CacheService defaultService = this;
+
+    /**
+     * KEYS[1] 列表，ARGV[1] 为 1 时先删除，ARGV[2] 过期时间(秒s)为空时不设置，ARGV[3..] 追加的值；
+     * unpack 受 Lua 栈大小限制，每 1000 个值调用一次 RPUSH
+     */
+    private static final byte[] PUSH_WITH_EXPIRE_LUA = ("if ARGV[1] == '1' then redis.call('del', KEYS[1]) end " +
+            "local size = redis.call('llen', KEYS[1]) " +
+            "for i = 3, #ARGV, 1000 do " +
+            "    size = redis.call('rpush', KEYS[1], unpack(ARGV, i, math.min(i + 999, #ARGV))) " +
+            "end " +
+            "if ARGV[2] ~= '' then redis.call('expire', KEYS[1], ARGV[2]) end " +
+            "return size").getBytes(StandardCharsets.UTF_8);
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    public CacheServiceImpl() {
+    }
+
+    /**
+     * 复制 source 的全部依赖，只操作 indexDB 库；新增字段时需要同步在这里复制
+     */
+    CacheServiceImpl(CacheServiceImpl source, int indexDB) {
+        this.redisTemplate = source.databaseRouter.getTemplate(indexDB);
+        this.database = indexDB;
+        this.cacheProperties = source.cacheProperties;
+        this.getCoalescer = source.getCoalescer;
+        this.circuitBreaker = source.circuitBreaker;
+        this.clusterBatchExecutor = source.clusterBatchExecutor;
+        this.databaseRouter = source.databaseRouter;
+        this.driverCommands = source.driverCommands;
+        this.loadCompletionListener = source.loadCompletionListener;
+        this.refreshAheadExecutor = source.refreshAheadExecutor;
+        this.expiryPolicy = source.expiryPolicy;
+        this.databaseServices = source.databaseServices;
+        this.defaultService = source.defaultService;
+    }
+
     @Override
     public void set(String key, Object value) {
         ValueOperations<String, Object> operations = redisTemplate.opsForValue();
-        operations.set(key, value);
+        guardedWrite(() -> {
+            operations.set(key, value);
+            return null;
+        }, Collections.singletonMap(key, value));
     }
 
     @Override
     public void set(String key, Object value, long expireTime) {
         ValueOperations<String, Object> operations = redisTemplate.opsForValue();
-        operations.set(key, value);
-        redisTemplate.expire(key, expireTime, TimeUnit.SECONDS);
+        // SET EX 一条命令同时写入值和过期时间
+        long seconds = expiryPolicy.expireSeconds(key, expireTime);
+        if (seconds <= 0) {
+            // SET EX 不接受不大于 0 的过期时间，与原来 SET 后 EXPIRE 0 的结果一致，直接删除
+            delete(key);
+            return;
+        }
+        guardedWrite(() -> {
+            operations.set(key, value, seconds, TimeUnit.SECONDS);
+            return null;
+        }, Collections.singletonMap(key, value));
     }
 
     @Override
     public void multiSet(Map<String, Object> maps) {
-        ValueOperations<String, Object> operations = redisTemplate.opsForValue();
-        operations.multiSet(maps);
+        guardedWrite(() -> {
+            if (clusterBatchExecutor.isCluster()) {
+                clusterBatchExecutor.multiSet(maps);
+            } else {
+                redisTemplate.opsForValue().multiSet(maps);
+            }
+            return null;
+        }, maps);
     }
 
     @Override
     public Object get(String key) {
-        ValueOperations<String, Object> operations = redisTemplate.opsForValue();
-        return operations.get(key);
+        if (circuitBreaker == null) {
+            return doGet(key);
+        }
+        return circuitBreaker.read(database(), key, () -> doGet(key));
+    }
+
+    @Override
+    public Object getOrLoad(String key, long expireTime, Supplier<?> loader) {
+        Object value = get(key);
+        if (value != null) {
+            return value;
+        }
+        return singleFlight.execute(key, () -> {
+            // 上一轮加载可能刚刚写入，再查一次避免重复加载
+            Object cached = get(key);
+            return cached != null ? cached : loadAndSet(key, expireTime, loader);
+        });
+    }
+
+    @Override
+    public Object getOrLoadDistributed(String key, long expireTime, Supplier<?> loader) {
+        Object value = get(key);
+        if (value != null) {
+            return value;
+        }
+        return singleFlight.execute(key, () -> loadDistributed(key, expireTime, loader));
+    }
+
+    @Override
+    public Object getOrRefresh(String key, long refreshAfter, long expireTime, Supplier<?> loader) {
+        // 熔断降级时拿不到剩余存活时间，只返回降级缓存中的旧值，不触发刷新
+        Long[] ttlHolder = new Long[1];
+        Supplier<Object> call = () -> {
+            List<Object> results = getWithTtl(key);
+            ttlHolder[0] = (Long) results.get(1);
+            return results.get(0);
+        };
+        Object value = circuitBreaker == null ? call.get() : circuitBreaker.read(database(), key, call);
+        if (value == null) {
+            return getOrLoad(key, expireTime, loader);
+        }
+        Long ttl = ttlHolder[0];
+        if (ttl != null && ttl >= 0 && ttl < TimeUnit.SECONDS.toMillis(expireTime - refreshAfter)) {
+            refreshAheadExecutor.submit(key, () -> refresh(key, refreshAfter, expireTime, loader));
+        }
+        return value;
     }
 
     @Override
     public List<Object> multiGet(Collection<String> keys) {
-        ValueOperations<String, Object> operations = redisTemplate.opsForValue();
-        return operations.multiGet(keys);
+        if (circuitBreaker == null) {
+            return doMultiGet(keys);
+        }
+        return circuitBreaker.readAll(database(), new ArrayList<>(keys), () -> doMultiGet(keys));
     }
 
     @Override
     public Boolean delete(String key) {
-        return redisTemplate.delete(key);
+        return guardedWrite(() -> redisTemplate.delete(key), Collections.singletonMap(key, null));
     }
 
     @Override
@@ -84,6 +246,12 @@ public class CacheServiceImpl implements CacheService {
         return operations.entries(key);
     }
 
+    @Override
+    public Stream<Map.Entry<Object, Object>> hScan(String key, int batchSize) {
+        HashOperations<String, Object, Object> operations = redisTemplate.opsForHash();
+        return CursorStreams.of(operations.scan(key, ScanOptions.scanOptions().count(batchSize).build()));
+    }
+
     @Override
     public Boolean hExists(String key, String hashKey) {
         HashOperations<String, Object, Object> operations = redisTemplate.opsForHash();
@@ -97,9 +265,7 @@ public class CacheServiceImpl implements CacheService {
 
     @Override
     public Long lSet(String key, Object value, long time) {
-        Long result = redisTemplate.opsForList().rightPush(key, value);
-        expireKey(key, time);
-        return result;
+        return pushWithExpire(key, Collections.singletonList(value), false, expiryPolicy.expireSeconds(key, time));
     }
 
     @Override
@@ -110,16 +276,15 @@ public class CacheServiceImpl implements CacheService {
 
     @Override
     public Long lMultiSet(String key, List<Object> values, boolean isClear) {
-        if (isClear)
-            redisTemplate.delete(key);
-        return redisTemplate.opsForList().rightPushAll(key, values);
+        if (!isClear)
+            return redisTemplate.opsForList().rightPushAll(key, values);
+        // 清理和添加在同一个脚本中执行，读不到清理后的空列表
+        return pushWithExpire(key, values, true, null);
     }
 
     @Override
     public Long lMultiSet(String key, List<Object> values, boolean isClear, long time) {
-        Long result = lMultiSet(key, values, isClear);
-        expireKey(key, time);
-        return result;
+        return pushWithExpire(key, values, isClear, expiryPolicy.expireSeconds(key, time));
     }
     @Override
     public Long lRemove(String key, Object value) {
@@ -135,6 +300,11 @@ public class CacheServiceImpl implements CacheService {
         return redisTemplate.opsForList().range(key, start, end);
     }
 
+    @Override
+    public Stream<Object> lScan(String key, int batchSize) {
+        return CursorStreams.ranges((start, end) -> redisTemplate.opsForList().range(key, start, end), batchSize);
+    }
+
     //无序set操作
     @Override
     public Long add(String key ,String ...values){
@@ -156,6 +326,11 @@ public class CacheServiceImpl implements CacheService {
         return redisTemplate.opsForSet().members(key);
     }
 
+    @Override
+    public Stream<Object> sScan(String key, int batchSize) {
+        return CursorStreams.of(redisTemplate.opsForSet().scan(key, ScanOptions.scanOptions().count(batchSize).build()));
+    }
+
     //有序zset操作
     @Override
     public void zAdd(String key, Object value, double score) {
@@ -202,9 +377,14 @@ public class CacheServiceImpl implements CacheService {
         return redisTemplate.opsForZSet().rangeByScore(key, min, max);
     }
 
+    @Override
+    public Stream<ZSetOperations.TypedTuple<Object>> zScan(String key, int batchSize) {
+        return CursorStreams.of(redisTemplate.opsForZSet().scan(key, ScanOptions.scanOptions().count(batchSize).build()));
+    }
+
     @Override
     public void expireKey(String key, long expireTime) {
-        redisTemplate.expire(key,expireTime, TimeUnit.SECONDS);
+        redisTemplate.expire(key, expiryPolicy.expireSeconds(key, expireTime), TimeUnit.SECONDS);
     }
 
     /*@Override
@@ -218,6 +398,34 @@ public class CacheServiceImpl implements CacheService {
         return redisTemplate.keys(prefix);
     }*/
 
+    @Override
+    public Stream<String> scanKeys(String pattern, int batchSize) {
+        return KeyScanner.scan(redisTemplate, clusterBatchExecutor.isCluster(), pattern, batchSize);
+    }
+
+    @Override
+    public long deleteByPattern(String pattern, int batchSize) {
+        double rate = cacheProperties.getScan().getDeleteRate();
+        RateLimiter rateLimiter = rate > 0 ? RateLimiter.create(rate) : null;
+        long deleted = 0L;
+        List<String> batch = new ArrayList<>(batchSize);
+        try (Stream<String> keys = scanKeys(pattern, batchSize)) {
+            Iterator<String> iterator = keys.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() >= batchSize || !iterator.hasNext()) {
+                    if (rateLimiter != null) {
+                        rateLimiter.acquire(batch.size());
+                    }
+                    Long count = unlink(batch);
+                    deleted += count == null ? 0L : count;
+                    batch.clear();
+                }
+            }
+        }
+        return deleted;
+    }
+
     @Override
     public Boolean existsKey(String key) {
         return redisTemplate.hasKey(key);
@@ -225,63 +433,257 @@ public class CacheServiceImpl implements CacheService {
 
     @Override
     public Long batchDelete(Collection<String> keys) {
+        if (clusterBatchExecutor.isCluster()) {
+            return clusterBatchExecutor.batchDelete(keys);
+        }
         return redisTemplate.delete(keys);
     }
 
     @Override
+    public List<Object> pipeline(Consumer<BatchOps> batch) {
+        DefaultBatchOps batchOps = new DefaultBatchOps(expiryPolicy);
+        batch.accept(batchOps);
+        return executeBatch(batchOps);
+    }
+
+    @Override
+    @Deprecated
     public void selectDatabase(int indexDB) {
-        LettuceConnectionFactory jedisConnectionFactory = (LettuceConnectionFactory) redisTemplate.getConnectionFactory();
-        assert jedisConnectionFactory != null;
-        jedisConnectionFactory.setDatabase(indexDB);
-        redisTemplate.setConnectionFactory(jedisConnectionFactory);
-        jedisConnectionFactory.resetConnection();
+        // 切换单例的数据库会影响所有并发调用方
+        throw new UnsupportedOperationException("selectDatabase is no longer supported, use forDatabase(" + indexDB + ") instead");
+    }
+
+    @Override
+    public CacheService forDatabase(int indexDB) {
+        if (indexDB == database()) {
+            return this;
+        }
+        if (indexDB == databaseRouter.getDefaultDatabase()) {
+            return defaultService;
+        }
+        return databaseServices.computeIfAbsent(indexDB, index -> new CacheServiceImpl(this, index));
     }
 
     @Override
     public boolean setLock(String key, long expire) {
-        RedisCallback<String> callback = (connection) -> {
-            JedisCommands commands = (JedisCommands) connection.getNativeConnection();
-            String uuid = UUID.randomUUID().toString();
-            // EX = seconds; PX = milliseconds 单位不同
-            return commands.set(key, uuid, "NX", "PX", expire);
-        };
-        String result = redisTemplate.execute(callback);
-        return !StringUtils.isEmpty(result);
+        return setLock(key, UUID.randomUUID().toString(), expire);
     }
 
-    private static final String UNLOCK_LUA;
-    static {
-        String sb = "if redis.call(\"get\",KEYS[1]) == ARGV[1] " +
-                "then " +
-                "    return redis.call(\"del\",KEYS[1]) " +
-                "else " +
-                "    return 0 " +
-                "end ";
-        UNLOCK_LUA = sb;
+    @Override
+    public boolean setLock(String key, String requestId, long expire) {
+        byte[] rawKey = rawKey(key);
+        byte[] rawValue = requestId.getBytes(StandardCharsets.UTF_8);
+        Boolean result = redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                driverCommands.setIfAbsent(connection, rawKey, rawValue, expire));
+        return Boolean.TRUE.equals(result);
     }
+
     @Override
     public boolean releaseDistributedLock(String key, String requestId) {
-        List<String> keys = new ArrayList<>();
-        keys.add(key);
-        List<String> args = new ArrayList<>();
-        args.add(requestId);
+        byte[] rawKey = rawKey(key);
+        byte[] rawValue = requestId.getBytes(StandardCharsets.UTF_8);
         // 使用lua脚本删除redis中匹配value的key，可以避免由于方法执行时间过长而redis锁自动过期失效的时候误删其他线程的锁
-        // spring自带的执行脚本方法中，集群模式直接抛出不支持执行脚本的异常，所以只能拿到原redis的connection来执行脚本
-        RedisCallback<Long> callback = (connection) -> {
-            Object nativeConnection = connection.getNativeConnection();
-            // 集群模式和单机模式虽然执行脚本的方法一样，但是没有共同的接口，所以只能分开执行
-            // 集群模式
-            if (nativeConnection instanceof JedisCluster) {
-                return (Long) ((JedisCluster) nativeConnection).eval(UNLOCK_LUA, keys, args);
+        Boolean result = redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                driverCommands.compareAndDelete(connection, rawKey, rawValue));
+        return Boolean.TRUE.equals(result);
+    }
+
+    /**
+     * 在共用连接上用一条 EVAL 执行 [DEL] + RPUSH + [EXPIRE]，写入和过期时间一起生效，不会留下没有过期时间的 key，
+     * 一次往返，也不需要 MULTI 独占的专用连接
+     * @param clear 是否先删除原来的列表
+     * @param seconds 过期时间(秒s)，为 null 时不设置，不大于 0 时与 EXPIRE 一样删除 key
+     * @return 写入后列表的长度
+     */
+    Long pushWithExpire(String key, List<Object> values, boolean clear, Long seconds) {
+        @SuppressWarnings("unchecked")
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        @SuppressWarnings("unchecked")
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        RedisSerializer<String> argSerializer = redisTemplate.getStringSerializer();
+        byte[][] keysAndArgs = new byte[values.size() + 3][];
+        keysAndArgs[0] = keySerializer.serialize(key);
+        keysAndArgs[1] = argSerializer.serialize(clear ? "1" : "0");
+        keysAndArgs[2] = argSerializer.serialize(seconds == null ? "" : String.valueOf(seconds));
+        for (int i = 0; i < values.size(); i++) {
+            keysAndArgs[i + 3] = valueSerializer.serialize(values.get(i));
+        }
+        return redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.eval(PUSH_WITH_EXPIRE_LUA, ReturnType.INTEGER, 1, keysAndArgs));
+    }
+
+    /**
+     * 按批大小把命令分批放进管道执行，合并各批结果
+     */
+    List<Object> executeBatch(DefaultBatchOps batchOps) {
+        List<Consumer<RedisOperations<String, Object>>> commands = batchOps.getCommands();
+        int chunkSize = Math.max(1, cacheProperties.getPipeline().getChunkSize());
+        List<Object> results = new ArrayList<>(commands.size());
+        for (int from = 0; from < commands.size(); from += chunkSize) {
+            List<Consumer<RedisOperations<String, Object>>> chunk =
+                    commands.subList(from, Math.min(from + chunkSize, commands.size()));
+            results.addAll(redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    chunk.forEach(command -> command.accept(ops));
+                    return null;
+                }
+            }));
+        }
+        return results;
+    }
+
+    /**
+     * 一次管道同时取值和剩余存活时间
+     * @return 值、剩余存活时间(毫秒ms)
+     */
+    List<Object> getWithTtl(String key) {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                ops.opsForValue().get(key);
+                ops.getExpire(key, TimeUnit.MILLISECONDS);
+                return null;
             }
+        });
+    }
 
-            // 单机模式
-            else if (nativeConnection instanceof Jedis) {
-                return (Long) ((Jedis) nativeConnection).eval(UNLOCK_LUA, keys, args);
+    /**
+     * 当前操作的数据库下标，用来区分熔断器中各库的本地降级缓存
+     */
+    int database() {
+        int index = database;
+        return index >= 0 ? index : databaseRouter.getDefaultDatabase();
+    }
+
+    private Object doGet(String key) {
+        // 合并器只读默认数据库
+        if (getCoalescer != null && redisTemplate == databaseRouter.getDefaultTemplate()) {
+            return getCoalescer.get(key);
+        }
+        ValueOperations<String, Object> operations = redisTemplate.opsForValue();
+        return operations.get(key);
+    }
+
+    private List<Object> doMultiGet(Collection<String> keys) {
+        if (clusterBatchExecutor.isCluster()) {
+            return clusterBatchExecutor.multiGet(keys);
+        }
+        ValueOperations<String, Object> operations = redisTemplate.opsForValue();
+        return operations.multiGet(keys);
+    }
+
+    /**
+     * 没有熔断器时直接执行写入，有熔断器时降级后返回 null
+     * @param values 写入的 key 和值，值为 null 表示删除
+     */
+    private <T> T guardedWrite(Supplier<T> call, Map<String, Object> values) {
+        if (circuitBreaker == null) {
+            return call.get();
+        }
+        return circuitBreaker.write(database(), call, values);
+    }
+
+    /**
+     * 抢到加载锁的节点加载并通知其它节点，没抢到的等待通知后重新读取，等不到值时自己加载兜底
+     */
+    private Object loadDistributed(String key, long expireTime, Supplier<?> loader) {
+        Object cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        CacheProperties.Loader config = cacheProperties.getLoader();
+        String lockKey = key + config.getLockSuffix();
+        String token = UUID.randomUUID().toString();
+        // 锁还被持有说明其它节点仍在加载，继续等待；锁空闲（加载结束但没有写入值）或租期到期（持有者宕机）后自己加锁加载
+        while (!setLock(lockKey, token, config.getLeaseTime().toMillis())) {
+            cached = awaitLoaded(key, config.getMaxWait().toMillis());
+            if (cached != null) {
+                return cached;
             }
-            return 0L;
-        };
-        Long result = redisTemplate.execute(callback);
-        return result != null && result > 0;
+            if (Thread.currentThread().isInterrupted()) {
+                // 被中断时不再等待
+                return loadAndSet(key, expireTime, loader);
+            }
+        }
+        try {
+            return loadAndSet(key, expireTime, loader);
+        } finally {
+            releaseDistributedLock(lockKey, token);
+            loadCompletionListener.publish(key);
+        }
+    }
+
+    /**
+     * 等待其它节点的加载完成通知后重新读取，最多等待 maxWait
+     * @return 读到的值，超时或仍未写入时为 null
+     */
+    private Object awaitLoaded(String key, long maxWait) {
+        // 先登记等待再查一次，避免错过登记之前刚写入的值
+        CompletableFuture<Void> loaded = loadCompletionListener.await(key);
+        try {
+            Object cached = get(key);
+            if (cached == null) {
+                loaded.get(maxWait, TimeUnit.MILLISECONDS);
+                cached = get(key);
+            }
+            return cached;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // 等待超时，回到调用方重新检查加载锁
+        } finally {
+            loadCompletionListener.cancel(key, loaded);
+        }
+        return null;
+    }
+
+    /**
+     * 后台刷新，抢不到加载锁说明其它节点正在刷新或加载，直接放弃
+     */
+    private void refresh(String key, long refreshAfter, long expireTime, Supplier<?> loader) {
+        CacheProperties.Loader config = cacheProperties.getLoader();
+        String lockKey = key + config.getLockSuffix();
+        String token = UUID.randomUUID().toString();
+        if (!setLock(lockKey, token, config.getLeaseTime().toMillis())) {
+            return;
+        }
+        try {
+            // 读到旧的存活时间后提交的刷新可能在上一次刷新完成后才执行，已经刷新过就不再加载
+            Long ttl = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+            if (ttl != null && ttl >= TimeUnit.SECONDS.toMillis(expireTime - refreshAfter)) {
+                return;
+            }
+            loadAndSet(key, expireTime, loader);
+        } finally {
+            releaseDistributedLock(lockKey, token);
+        }
+    }
+
+    private Object loadAndSet(String key, long expireTime, Supplier<?> loader) {
+        Object loaded = loader.get();
+        if (loaded != null) {
+            set(key, loaded, expireTime);
+        }
+        return loaded;
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    /**
+     * 删除一批 key，UNLINK 在后台释放内存，集群模式按槽分组并行执行
+     */
+    Long unlink(List<String> keys) {
+        if (clusterBatchExecutor.isCluster()) {
+            return clusterBatchExecutor.batchDelete(keys);
+        }
+        return redisTemplate.unlink(keys);
     }
 }
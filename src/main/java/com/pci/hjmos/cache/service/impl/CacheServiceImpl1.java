@@ -19,9 +19,13 @@ public class CacheServiceImpl1 implements CacheService1 {
 
     @Override
     public void set(String key, Object value, long expireTime) {
+        if (expireTime <= 0) {
+            // SET EX 不接受不大于 0 的过期时间，与 EXPIRE 0 一样直接删除
+            redisTemplate.delete(key);
+            return;
+        }
         ValueOperations<String, Object> operations = redisTemplate.opsForValue();
-        operations.set(key, value);
-        redisTemplate.expire(key, expireTime, TimeUnit.SECONDS);
+        operations.set(key, value, expireTime, TimeUnit.SECONDS);
     }
 
     @Override
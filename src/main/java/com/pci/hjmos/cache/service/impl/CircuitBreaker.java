@@ -0,0 +1,420 @@
+package com.pci.hjmos.cache.service.impl;
+
+import com.pci.hjmos.cache.config.CacheProperties;
+import com.pci.hjmos.cache.config.DegradedWritePolicy;
+import com.pci.hjmos.cache.localCache.NearCache;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Redis 调用的熔断器和隔离舱，不经过额外的线程池，在调用方线程上执行
+ * 隔离舱：信号量限制同时进行的 Redis 调用数，拿不到许可立即降级，不排队等待；
+ * 熔断：按调用次数统计的滚动窗口内，失败（抛出异常或耗时超过慢调用阈值）比例达到阈值后打开，
+ * 打开期间所有调用直接降级，等待 wait-in-open 后半开，放行 half-open-calls 次试探调用，全部成功则关闭，任一失败重新打开
+ * 降级时读操作从本地降级缓存返回，允许读到旧值，没有时返回 null；写操作按 DegradedWritePolicy 丢弃或排队，
+ * 同时更新本地降级缓存；正常的读写也会同步写入本地降级缓存，作为降级时的数据来源
+ * 排队的写入按顺序逐条重放，重放成功才出队，失败时留在队首；队列不为空时新的写入也排到队尾，
+ * 不会先于排队的旧写入到达 Redis，避免重放的旧值覆盖或删除新值
+ * 本地降级缓存按数据库分开，每个库各自最多 fallback-size 个
+ * 通过 hjmos.cache.breaker.enabled=true 开启，开启后 CacheServiceImpl 的 String 类型读写经由本类执行
+ */
+@Log4j2
+@Component
+@ConditionalOnProperty(prefix = "hjmos.cache.breaker", name = "enabled", havingValue = "true")
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    @Resource
+    CacheProperties cacheProperties;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private volatile long openedAt;
+
+    /**
+     * 当前窗口的调用数和失败数
+     */
+    private final AtomicInteger windowCalls = new AtomicInteger();
+    private final AtomicInteger windowFailures = new AtomicInteger();
+
+    /**
+     * 半开状态剩余的试探许可、尚未返回结果的试探调用数
+     */
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final AtomicInteger halfOpenPending = new AtomicInteger();
+
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder fallbackReads = new LongAdder();
+    private final LongAdder droppedWrites = new LongAdder();
+
+    private CacheProperties.Breaker config;
+    private long slowCallNanos;
+    private Semaphore bulkhead;
+    /**
+     * 按数据库下标区分的本地降级缓存
+     */
+    private final Map<Integer, NearCache> fallbackCaches = new ConcurrentHashMap<>();
+    private long fallbackTtlMillis;
+    /**
+     * 排队等待重放的写入，读写都在 pendingWrites 上同步
+     */
+    private final Deque<Supplier<?>> pendingWrites = new ArrayDeque<>();
+    private int writeQueueCapacity;
+    private final AtomicBoolean replaying = new AtomicBoolean();
+    private ExecutorService replayExecutor;
+
+    @PostConstruct
+    public void init() {
+        config = cacheProperties.getBreaker();
+        slowCallNanos = config.getSlowCallThreshold().toNanos();
+        bulkhead = new Semaphore(Math.max(1, config.getMaxConcurrentCalls()));
+        fallbackTtlMillis = config.getFallbackTtl().toMillis();
+        writeQueueCapacity = Math.max(1, config.getWriteQueueCapacity());
+        replayExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "circuit-breaker-replay-Thread");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        replayExecutor.shutdownNow();
+    }
+
+    /**
+     * 单 key 读取，降级时从本地降级缓存返回
+     * @param database 数据库下标
+     */
+    public Object read(int database, String key, Supplier<Object> call) {
+        NearCache fallbackCache = fallbackCache(database);
+        if (!tryAcquire()) {
+            return fallbackRead(fallbackCache, key);
+        }
+        Object value;
+        try {
+            value = invoke(call);
+        } catch (RuntimeException ex) {
+            return fallbackRead(fallbackCache, key);
+        }
+        remember(fallbackCache, key, value);
+        return value;
+    }
+
+    /**
+     * 批量读取，降级时逐个从本地降级缓存返回
+     * @param database 数据库下标
+     */
+    public List<Object> readAll(int database, List<String> keys, Supplier<List<Object>> call) {
+        NearCache fallbackCache = fallbackCache(database);
+        if (tryAcquire()) {
+            try {
+                List<Object> values = invoke(call);
+                if (values != null) {
+                    for (int i = 0; i < keys.size(); i++) {
+                        remember(fallbackCache, keys.get(i), values.get(i));
+                    }
+                }
+                return values;
+            } catch (RuntimeException ex) {
+                // 下面降级读取
+            }
+        }
+        List<Object> values = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            values.add(fallbackRead(fallbackCache, key));
+        }
+        return values;
+    }
+
+    /**
+     * 写入，无论是否降级都同步更新本地降级缓存；还有排队的写入没有重放完时排到队尾，保证写入顺序
+     * @param database 数据库下标
+     * @param values 写入的 key 和值，值为 null 表示删除
+     * @return Redis 的返回值，降级或排队时为 null
+     */
+    public <T> T write(int database, Supplier<T> call, Map<String, Object> values) {
+        NearCache fallbackCache = fallbackCache(database);
+        values.forEach((key, value) -> {
+            if (value == null) {
+                fallbackCache.invalidate(key);
+            } else {
+                fallbackCache.put(key, value, fallbackTtlMillis);
+            }
+        });
+        if (config.getWritePolicy() == DegradedWritePolicy.QUEUE && enqueueBehindPending(call)) {
+            return null;
+        }
+        if (!tryAcquire()) {
+            degradedWrite(call);
+            return null;
+        }
+        try {
+            return invoke(call);
+        } catch (RuntimeException ex) {
+            degradedWrite(call);
+            return null;
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * 被熔断或隔离舱拒绝的调用数
+     */
+    public long getRejectedCount() {
+        return rejections.sum();
+    }
+
+    /**
+     * 失败（异常或慢调用）的调用数
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * 从本地降级缓存返回的读取数
+     */
+    public long getFallbackReadCount() {
+        return fallbackReads.sum();
+    }
+
+    /**
+     * 降级时丢弃的写入数
+     */
+    public long getDroppedWriteCount() {
+        return droppedWrites.sum();
+    }
+
+    /**
+     * 等待重放的写入数
+     */
+    public int getPendingWriteCount() {
+        synchronized (pendingWrites) {
+            return pendingWrites.size();
+        }
+    }
+
+    /**
+     * 执行调用并记录结果，调用结束后释放隔离舱许可
+     */
+    private <T> T invoke(Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            onResult(System.nanoTime() - start > slowCallNanos);
+            return result;
+        } catch (RuntimeException ex) {
+            onResult(true);
+            log.debug("redis call failed, breaker state -> {}", state.get(), ex);
+            throw ex;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * 熔断关闭或有半开许可，并且拿到隔离舱许可时才可以调用 Redis
+     */
+    private boolean tryAcquire() {
+        State current = state.get();
+        if (current == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < config.getWaitInOpen().toMillis()
+                    || !transition(State.OPEN, State.HALF_OPEN)) {
+                rejections.increment();
+                return false;
+            }
+            halfOpenPermits.set(Math.max(1, config.getHalfOpenCalls()));
+            halfOpenPending.set(0);
+            current = State.HALF_OPEN;
+        }
+        if (current == State.HALF_OPEN) {
+            if (halfOpenPermits.getAndDecrement() <= 0) {
+                rejections.increment();
+                return false;
+            }
+            halfOpenPending.incrementAndGet();
+        }
+        if (!bulkhead.tryAcquire()) {
+            rejections.increment();
+            if (current == State.HALF_OPEN) {
+                halfOpenPermits.incrementAndGet();
+                halfOpenPending.decrementAndGet();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private void onResult(boolean failure) {
+        if (failure) {
+            failures.increment();
+        }
+        State current = state.get();
+        if (current == State.HALF_OPEN) {
+            if (failure) {
+                open(State.HALF_OPEN);
+            } else if (halfOpenPending.decrementAndGet() == 0 && halfOpenPermits.get() <= 0
+                    && transition(State.HALF_OPEN, State.CLOSED)) {
+                resetWindow();
+                log.info("circuit breaker closed");
+                replayPendingWrites();
+            }
+            return;
+        }
+        if (current != State.CLOSED) {
+            return;
+        }
+        int calls = windowCalls.incrementAndGet();
+        int failed = failure ? windowFailures.incrementAndGet() : windowFailures.get();
+        if (calls >= config.getMinimumCalls() && failed >= calls * config.getFailureRateThreshold()) {
+            open(State.CLOSED);
+        } else if (calls >= config.getWindowSize()) {
+            resetWindow();
+        }
+    }
+
+    private void open(State from) {
+        if (transition(from, State.OPEN)) {
+            openedAt = System.currentTimeMillis();
+            resetWindow();
+            log.warn("circuit breaker opened from {}", from);
+        }
+    }
+
+    private boolean transition(State from, State to) {
+        return state.compareAndSet(from, to);
+    }
+
+    private void resetWindow() {
+        windowCalls.set(0);
+        windowFailures.set(0);
+    }
+
+    /**
+     * 读到的值与降级缓存中的相同时不再写入，读命中只做一次无锁查找
+     */
+    private void remember(NearCache fallbackCache, String key, Object value) {
+        if (value != null && !value.equals(fallbackCache.get(key))) {
+            fallbackCache.put(key, value, fallbackTtlMillis);
+        }
+    }
+
+    private NearCache fallbackCache(int database) {
+        NearCache fallbackCache = fallbackCaches.get(database);
+        if (fallbackCache != null) {
+            return fallbackCache;
+        }
+        return fallbackCaches.computeIfAbsent(database,
+                index -> new NearCache(config.getFallbackSize(), cacheProperties.getLocal().getEvictionPolicy()));
+    }
+
+    private Object fallbackRead(NearCache fallbackCache, String key) {
+        fallbackReads.increment();
+        return fallbackCache.get(key);
+    }
+
+    private void degradedWrite(Supplier<?> call) {
+        if (config.getWritePolicy() != DegradedWritePolicy.QUEUE || !offer(call)) {
+            droppedWrites.increment();
+        }
+    }
+
+    private boolean offer(Supplier<?> call) {
+        synchronized (pendingWrites) {
+            if (pendingWrites.size() >= writeQueueCapacity) {
+                return false;
+            }
+            pendingWrites.addLast(call);
+            return true;
+        }
+    }
+
+    /**
+     * 队列不为空时把写入排到队尾，熔断没有打开或已经可以半开时触发重放
+     * @return 是否已排队（或因队列已满丢弃），为 false 时调用方直接写入
+     */
+    private boolean enqueueBehindPending(Supplier<?> call) {
+        synchronized (pendingWrites) {
+            if (pendingWrites.isEmpty()) {
+                return false;
+            }
+            if (pendingWrites.size() >= writeQueueCapacity) {
+                droppedWrites.increment();
+            } else {
+                pendingWrites.addLast(call);
+            }
+        }
+        if (state.get() != State.OPEN || System.currentTimeMillis() - openedAt >= config.getWaitInOpen().toMillis()) {
+            replayPendingWrites();
+        }
+        return true;
+    }
+
+    /**
+     * 在后台按顺序重放排队的写入，同一时间只有一个重放任务；
+     * 重放成功后才出队，熔断打开或重放失败时停止，失败的写入留在队首，等熔断关闭或有新的写入时再继续
+     * 熔断打开超过 wait-in-open 后，重放的写入同时作为半开试探
+     */
+    private void replayPendingWrites() {
+        if (!replaying.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            replayExecutor.execute(() -> {
+                while (true) {
+                    Supplier<?> call;
+                    synchronized (pendingWrites) {
+                        call = pendingWrites.peekFirst();
+                        if (call == null) {
+                            // 在锁内复位，之后排队的写入能重新触发重放
+                            replaying.set(false);
+                            return;
+                        }
+                    }
+                    if (!tryAcquire()) {
+                        replaying.set(false);
+                        return;
+                    }
+                    try {
+                        invoke(call);
+                    } catch (RuntimeException ex) {
+                        replaying.set(false);
+                        return;
+                    }
+                    synchronized (pendingWrites) {
+                        pendingWrites.pollFirst();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            replaying.set(false);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.pci.hjmos.cache.service.impl;
+
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.cluster.api.async.RedisAdvancedClusterAsyncCommands;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceExceptionConverter;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 集群模式下的批量读写
+ * 按哈希槽把 key 分组，每个槽一条 MGET / MSET / UNLINK，通过 Lettuce 集群异步连接同时发往各槽所在节点，
+ * 全部发出后再统一等待，整批只需要大约一次并行往返；MGET 的结果按输入顺序重新组装
+ * 非 Lettuce 连接时退化为按槽逐组执行，至少不会因为 CROSSSLOT 失败
+ */
+@Component
+public class ClusterBatchExecutor {
+
+    private static final LettuceExceptionConverter EXCEPTION_CONVERTER = new LettuceExceptionConverter();
+
+    @Resource
+    RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 是否连接的是集群，无法从连接工厂判断时第一次使用时通过连接判断
+     */
+    private volatile Boolean cluster;
+
+    /**
+     * 是否可以使用 Lettuce 集群异步连接，第一次批量操作时判断
+     */
+    private volatile Boolean asyncCluster;
+
+    /**
+     * 从连接工厂的配置判断是否集群，不建立连接，Redis 不可用时也能正常启动
+     */
+    @PostConstruct
+    public void init() {
+        RedisConnectionFactory factory = redisTemplate.getConnectionFactory();
+        if (factory instanceof LettuceConnectionFactory) {
+            cluster = ((LettuceConnectionFactory) factory).isClusterAware();
+        } else if (factory instanceof JedisConnectionFactory) {
+            cluster = ((JedisConnectionFactory) factory).isRedisClusterAware();
+        }
+    }
+
+    /**
+     * 当前是否连接的是集群
+     */
+    public boolean isCluster() {
+        Boolean isCluster = cluster;
+        if (isCluster == null) {
+            isCluster = redisTemplate.execute((RedisCallback<Boolean>) connection -> connection instanceof RedisClusterConnection);
+            cluster = isCluster;
+        }
+        return isCluster;
+    }
+
+    private boolean asyncCluster() {
+        Boolean async = asyncCluster;
+        if (async == null) {
+            async = redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                    connection.getNativeConnection() instanceof RedisAdvancedClusterAsyncCommands);
+            asyncCluster = async;
+        }
+        return async;
+    }
+
+    /**
+     * 批量读取，结果顺序与 keys 一致，不存在的为 null
+     */
+    public List<Object> multiGet(Collection<String> keys) {
+        List<String> keyList = new ArrayList<>(keys);
+        byte[][] rawKeys = rawKeys(keyList);
+        Map<Integer, List<Integer>> slots = groupBySlot(rawKeys);
+        Object[] values = new Object[rawKeys.length];
+        if (!asyncCluster()) {
+            for (List<Integer> indexes : slots.values()) {
+                List<Object> slotValues = redisTemplate.opsForValue().multiGet(select(keyList, indexes));
+                for (int i = 0; i < indexes.size(); i++) {
+                    values[indexes.get(i)] = slotValues == null ? null : slotValues.get(i);
+                }
+            }
+            return Arrays.asList(values);
+        }
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            RedisAdvancedClusterAsyncCommands<byte[], byte[]> commands = asyncCommands(connection);
+            Map<List<Integer>, RedisFuture<List<KeyValue<byte[], byte[]>>>> futures = new LinkedHashMap<>();
+            for (List<Integer> indexes : slots.values()) {
+                futures.put(indexes, commands.mget(select(rawKeys, indexes)));
+            }
+            Duration timeout = commands.getStatefulConnection().getTimeout();
+            RedisSerializer<?> valueSerializer = redisTemplate.getValueSerializer();
+            futures.forEach((indexes, future) -> {
+                List<KeyValue<byte[], byte[]>> keyValues = await(future, timeout);
+                for (int i = 0; i < indexes.size(); i++) {
+                    KeyValue<byte[], byte[]> keyValue = keyValues.get(i);
+                    values[indexes.get(i)] = keyValue.hasValue() ? valueSerializer.deserialize(keyValue.getValue()) : null;
+                }
+            });
+            return null;
+        });
+        return Arrays.asList(values);
+    }
+
+    /**
+     * 批量写入
+     */
+    @SuppressWarnings("unchecked")
+    public void multiSet(Map<String, Object> maps) {
+        List<String> keyList = new ArrayList<>(maps.keySet());
+        byte[][] rawKeys = rawKeys(keyList);
+        Map<Integer, List<Integer>> slots = groupBySlot(rawKeys);
+        if (!asyncCluster()) {
+            for (List<Integer> indexes : slots.values()) {
+                Map<String, Object> slotMap = new LinkedHashMap<>();
+                indexes.forEach(index -> slotMap.put(keyList.get(index), maps.get(keyList.get(index))));
+                redisTemplate.opsForValue().multiSet(slotMap);
+            }
+            return;
+        }
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            RedisAdvancedClusterAsyncCommands<byte[], byte[]> commands = asyncCommands(connection);
+            List<RedisFuture<String>> futures = new ArrayList<>(slots.size());
+            for (List<Integer> indexes : slots.values()) {
+                Map<byte[], byte[]> slotMap = new LinkedHashMap<>();
+                indexes.forEach(index -> slotMap.put(rawKeys[index], valueSerializer.serialize(maps.get(keyList.get(index)))));
+                futures.add(commands.mset(slotMap));
+            }
+            Duration timeout = commands.getStatefulConnection().getTimeout();
+            futures.forEach(future -> await(future, timeout));
+            return null;
+        });
+    }
+
+    /**
+     * 批量删除，集群异步连接上使用 UNLINK 在后台释放内存
+     * @return 删除的个数
+     */
+    public Long batchDelete(Collection<String> keys) {
+        List<String> keyList = new ArrayList<>(keys);
+        byte[][] rawKeys = rawKeys(keyList);
+        Map<Integer, List<Integer>> slots = groupBySlot(rawKeys);
+        if (!asyncCluster()) {
+            long deleted = 0L;
+            for (List<Integer> indexes : slots.values()) {
+                Long count = redisTemplate.delete(select(keyList, indexes));
+                deleted += count == null ? 0L : count;
+            }
+            return deleted;
+        }
+        return redisTemplate.execute((RedisCallback<Long>) connection -> {
+            RedisAdvancedClusterAsyncCommands<byte[], byte[]> commands = asyncCommands(connection);
+            long deleted = 0L;
+            List<RedisFuture<Long>> futures = new ArrayList<>(slots.size());
+            for (List<Integer> indexes : slots.values()) {
+                futures.add(commands.unlink(select(rawKeys, indexes)));
+            }
+            Duration timeout = commands.getStatefulConnection().getTimeout();
+            for (RedisFuture<Long> future : futures) {
+                Long count = await(future, timeout);
+                deleted += count == null ? 0L : count;
+            }
+            return deleted;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisAdvancedClusterAsyncCommands<byte[], byte[]> asyncCommands(RedisConnection connection) {
+        return (RedisAdvancedClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+    }
+
+    private static <T> T await(RedisFuture<T> future, Duration timeout) {
+        try {
+            return LettuceFutures.awaitOrCancel(future, timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (RuntimeException ex) {
+            throw EXCEPTION_CONVERTER.convert(ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[][] rawKeys(List<String> keys) {
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        byte[][] rawKeys = new byte[keys.size()][];
+        for (int i = 0; i < rawKeys.length; i++) {
+            rawKeys[i] = keySerializer.serialize(keys.get(i));
+        }
+        return rawKeys;
+    }
+
+    /**
+     * 按哈希槽分组，组内保持输入顺序
+     * @return 槽 -> 该槽中 key 的下标
+     */
+    private static Map<Integer, List<Integer>> groupBySlot(byte[][] rawKeys) {
+        Map<Integer, List<Integer>> slots = new HashMap<>();
+        for (int i = 0; i < rawKeys.length; i++) {
+            slots.computeIfAbsent(ClusterSlotHashUtil.calculateSlot(rawKeys[i]), slot -> new ArrayList<>()).add(i);
+        }
+        return slots;
+    }
+
+    private static byte[][] select(byte[][] rawKeys, List<Integer> indexes) {
+        byte[][] selected = new byte[indexes.size()][];
+        for (int i = 0; i < selected.length; i++) {
+            selected[i] = rawKeys[indexes.get(i)];
+        }
+        return selected;
+    }
+
+    private static List<String> select(List<String> keys, List<Integer> indexes) {
+        List<String> selected = new ArrayList<>(indexes.size());
+        indexes.forEach(index -> selected.add(keys.get(index)));
+        return selected;
+    }
+}
@@ -0,0 +1,75 @@
+package com.pci.hjmos.cache.service.impl;
+
+import org.springframework.data.redis.core.Cursor;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 把 SCAN 系列游标和分批 LRANGE 包装成惰性的 Stream，关闭 Stream 时释放游标占用的连接
+ */
+final class CursorStreams {
+
+    private CursorStreams() {
+    }
+
+    /**
+     * 游标转 Stream，关闭 Stream 时关闭游标
+     */
+    static <T> Stream<T> of(Cursor<T> cursor) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        cursor.close();
+                    } catch (Exception ignored) {
+                        // 关闭游标只是释放连接
+                    }
+                });
+    }
+
+    /**
+     * 分批读取区间，取完一批再取下一批，某一批不足 batchSize 时结束
+     * @param range 按闭区间 [start, end] 读取
+     */
+    static <T> Stream<T> ranges(BiFunction<Long, Long, List<T>> range, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        Iterator<T> iterator = new Iterator<T>() {
+            private long start = 0L;
+            private Iterator<T> chunk = Collections.emptyIterator();
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                while (!chunk.hasNext() && !exhausted) {
+                    List<T> items = range.apply(start, start + batchSize - 1);
+                    if (items == null || items.size() < batchSize) {
+                        exhausted = true;
+                    }
+                    if (items != null) {
+                        chunk = items.iterator();
+                        start += items.size();
+                    }
+                }
+                return chunk.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+}
@@ -0,0 +1,103 @@
+package com.pci.hjmos.cache.service.impl;
+
+import com.pci.hjmos.cache.service.BatchOps;
+import org.springframework.data.redis.core.RedisOperations;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * BatchOps 的默认实现，按顺序记录命令，由 CacheServiceImpl.executeBatch 分批在管道中回放
+ */
+class DefaultBatchOps implements BatchOps {
+
+    private final List<Consumer<RedisOperations<String, Object>>> commands = new ArrayList<>();
+
+    /**
+     * String 类型中被修改过的 key，供二级缓存失效
+     */
+    private final Set<String> writtenKeys = new LinkedHashSet<>();
+
+    private final ExpiryPolicy expiryPolicy;
+
+    DefaultBatchOps(ExpiryPolicy expiryPolicy) {
+        this.expiryPolicy = expiryPolicy;
+    }
+
+    @Override
+    public BatchOps set(String key, Object value) {
+        writtenKeys.add(key);
+        commands.add(operations -> operations.opsForValue().set(key, value));
+        return this;
+    }
+
+    @Override
+    public BatchOps set(String key, Object value, long expireTime) {
+        writtenKeys.add(key);
+        long seconds = expiryPolicy.expireSeconds(key, expireTime);
+        if (seconds <= 0) {
+            // SET EX 不接受不大于 0 的过期时间，与 EXPIRE 0 一样直接删除
+            commands.add(operations -> operations.delete(key));
+            return this;
+        }
+        commands.add(operations -> operations.opsForValue().set(key, value, seconds, TimeUnit.SECONDS));
+        return this;
+    }
+
+    @Override
+    public BatchOps get(String key) {
+        commands.add(operations -> operations.opsForValue().get(key));
+        return this;
+    }
+
+    @Override
+    public BatchOps delete(String key) {
+        writtenKeys.add(key);
+        commands.add(operations -> operations.delete(key));
+        return this;
+    }
+
+    @Override
+    public BatchOps expireKey(String key, long expireTime) {
+        writtenKeys.add(key);
+        long seconds = expiryPolicy.expireSeconds(key, expireTime);
+        commands.add(operations -> operations.expire(key, seconds, TimeUnit.SECONDS));
+        return this;
+    }
+
+    @Override
+    public BatchOps hPut(String key, String hashKey, Object hashValue) {
+        commands.add(operations -> operations.opsForHash().put(key, hashKey, hashValue));
+        return this;
+    }
+
+    @Override
+    public BatchOps hGet(String key, String hashKey) {
+        commands.add(operations -> operations.opsForHash().get(key, hashKey));
+        return this;
+    }
+
+    @Override
+    public BatchOps lSet(String key, Object value) {
+        commands.add(operations -> operations.opsForList().rightPush(key, value));
+        return this;
+    }
+
+    @Override
+    public BatchOps zAdd(String key, Object value, double score) {
+        commands.add(operations -> operations.opsForZSet().add(key, value, score));
+        return this;
+    }
+
+    List<Consumer<RedisOperations<String, Object>>> getCommands() {
+        return commands;
+    }
+
+    Set<String> getWrittenKeys() {
+        return writtenKeys;
+    }
+}
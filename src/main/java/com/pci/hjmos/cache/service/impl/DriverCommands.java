@@ -0,0 +1,52 @@
+package com.pci.hjmos.cache.service.impl;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.time.Duration;
+
+/**
+ * Spring Data Redis 没有统一封装、需要直接使用驱动原生连接的命令
+ * 启动时按连接工厂类型选择 Lettuce 或 Jedis 实现，单机和集群连接都支持；
+ * 实现不持有连接，由调用方在 RedisCallback 中传入当前连接，切换数据库后同样可用
+ */
+public interface DriverCommands {
+
+    /**
+     * 解锁脚本：值与传入的标识一致时才删除，避免误删其他线程的锁
+     */
+    String COMPARE_AND_DELETE_LUA = "if redis.call(\"get\",KEYS[1]) == ARGV[1] " +
+            "then " +
+            "    return redis.call(\"del\",KEYS[1]) " +
+            "else " +
+            "    return 0 " +
+            "end ";
+
+    /**
+     * SET key value NX PX expireMillis
+     * @return key 原来不存在、写入成功时为 true
+     */
+    boolean setIfAbsent(RedisConnection connection, byte[] key, byte[] value, long expireMillis);
+
+    /**
+     * 值与 value 一致时删除 key，在服务端用脚本原子执行
+     * @return 是否删除
+     */
+    boolean compareAndDelete(RedisConnection connection, byte[] key, byte[] value);
+
+    /**
+     * 按连接工厂类型选择实现
+     */
+    static DriverCommands forFactory(RedisConnectionFactory factory) {
+        if (factory instanceof LettuceConnectionFactory) {
+            Duration timeout = ((LettuceConnectionFactory) factory).getClientConfiguration().getCommandTimeout();
+            return new LettuceDriverCommands(timeout);
+        }
+        if (factory instanceof JedisConnectionFactory) {
+            return new JedisDriverCommands();
+        }
+        throw new IllegalStateException("unsupported redis connection factory: " + factory);
+    }
+}
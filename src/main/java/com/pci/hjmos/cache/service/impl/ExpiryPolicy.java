@@ -0,0 +1,146 @@
+package com.pci.hjmos.cache.service.impl;
+
+import com.pci.hjmos.cache.config.CacheProperties;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 过期时间策略，防止大批 key 在同一秒过期造成缓存雪崩
+ * CacheService 所有带过期时间的写入都经过这里，按 key 最长匹配的前缀规则（没有匹配时用默认规则）随机延长过期时间；
+ * 同时按过期时刻所在的分钟统计本进程写入的 key 个数，只统计未来 24 小时，更晚过期的只计总数；
+ * 统计用固定大小的环形计数器，写入时只做几次原子操作，槽位被新的分钟复用时清零，并发复用时可能少计几个，
+ * 同一个 key 重复写入会重复统计
+ */
+@Component
+public class ExpiryPolicy {
+
+    @Resource
+    CacheProperties cacheProperties;
+
+    /**
+     * 统计粒度(秒s)、统计窗口的槽数
+     */
+    static final long BUCKET_SECONDS = 60L;
+    static final int BUCKETS = 24 * 60;
+
+    /**
+     * 每个槽当前对应的分钟序号（过期时刻秒数 / 60）和该分钟过期的 key 个数
+     */
+    private final AtomicLongArray bucketMinutes = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * 超出统计窗口才过期的 key 个数
+     */
+    private final LongAdder beyondWindow = new LongAdder();
+
+    /**
+     * 按前缀长度从长到短排列的前缀规则
+     */
+    private final List<Map.Entry<String, CacheProperties.Jitter>> prefixJitters = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        cacheProperties.getExpiry().getPrefixes().forEach((prefix, jitter) ->
+                prefixJitters.add(new AbstractMap.SimpleImmutableEntry<>(prefix, jitter)));
+        prefixJitters.sort((a, b) -> b.getKey().length() - a.getKey().length());
+    }
+
+    /**
+     * 计算实际写入的过期时间并计入统计
+     * @param key 缓存key
+     * @param expireTime 调用方指定的过期时间(秒s)，不大于 0 时原样返回
+     * @return 偏移后的过期时间(秒s)
+     */
+    public long expireSeconds(String key, long expireTime) {
+        if (expireTime <= 0) {
+            return expireTime;
+        }
+        long seconds = expireTime + jitter(expireTime, jitterFor(key));
+        record(System.currentTimeMillis() / 1000 + seconds);
+        return seconds;
+    }
+
+    /**
+     * 按规则计算随机延长的秒数
+     */
+    public static long jitter(long expireTime, CacheProperties.Jitter jitter) {
+        long bound;
+        switch (jitter.getType()) {
+            case UNIFORM:
+                bound = jitter.getMax().getSeconds();
+                break;
+            case PERCENTAGE:
+                bound = (long) (expireTime * jitter.getPercentage());
+                break;
+            default:
+                return 0L;
+        }
+        return bound <= 0 ? 0L : ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    /**
+     * 未来 24 小时内的过期分钟（该分钟起始的秒级时间戳）及在该分钟过期的 key 个数，按时间排序
+     */
+    public NavigableMap<Long, Long> getExpiryHistogram() {
+        NavigableMap<Long, Long> snapshot = new TreeMap<>();
+        long nowMinute = System.currentTimeMillis() / 1000 / BUCKET_SECONDS;
+        for (long minute = nowMinute; minute < nowMinute + BUCKETS; minute++) {
+            int index = (int) (minute % BUCKETS);
+            long count = bucketCounts.get(index);
+            if (count > 0 && bucketMinutes.get(index) == minute) {
+                snapshot.put(minute * BUCKET_SECONDS, count);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 超出 24 小时统计窗口才过期的 key 个数
+     */
+    public long getBeyondWindowCount() {
+        return beyondWindow.sum();
+    }
+
+    /**
+     * 同一分钟过期的 key 个数的最大值
+     */
+    public long getPeakExpiryCount() {
+        return getExpiryHistogram().values().stream().mapToLong(Long::longValue).max().orElse(0L);
+    }
+
+    private CacheProperties.Jitter jitterFor(String key) {
+        for (Map.Entry<String, CacheProperties.Jitter> entry : prefixJitters) {
+            if (key.startsWith(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return cacheProperties.getExpiry().getJitter();
+    }
+
+    private void record(long expireAt) {
+        long minute = expireAt / BUCKET_SECONDS;
+        if (minute - System.currentTimeMillis() / 1000 / BUCKET_SECONDS >= BUCKETS) {
+            beyondWindow.increment();
+            return;
+        }
+        int index = (int) (minute % BUCKETS);
+        long current = bucketMinutes.get(index);
+        // 槽里还是已经过去的分钟，抢到复用权的线程清零
+        if (current != minute && bucketMinutes.compareAndSet(index, current, minute)) {
+            bucketCounts.set(index, 0L);
+        }
+        bucketCounts.incrementAndGet(index);
+    }
+}
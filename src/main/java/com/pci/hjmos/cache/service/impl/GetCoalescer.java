@@ -0,0 +1,250 @@
+package com.pci.hjmos.cache.service.impl;
+
+import com.pci.hjmos.cache.config.CacheProperties;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单 key 读请求合并
+ * 并发调用 get 的请求先放进所属前缀的批次，批次攒满 maxBatchSize 时由当前调用线程立即发送，
+ * 否则在第一个请求到达 maxDelay 后由定时线程交给发送线程发送，定时线程不执行阻塞的读取，
+ * 一个批次读取变慢不会推迟其它窗口的定时；单机模式一批只发一次 MGET，集群模式按槽分组并行发送 MGET
+ * 同一批次中的重复 key 只读取一次，每个调用方等待自己的 future 完成
+ * 通过 hjmos.cache.coalescing.enabled=true 开启，开启后 CacheServiceImpl.get 经由本类读取
+ */
+@Log4j2
+@Component
+@ConditionalOnProperty(prefix = "hjmos.cache.coalescing", name = "enabled", havingValue = "true")
+public class GetCoalescer {
+
+    @Resource
+    RedisTemplate<String, Object> redisTemplate;
+
+    @Resource
+    CacheProperties cacheProperties;
+
+    @Resource
+    ClusterBatchExecutor clusterBatchExecutor;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * 发送定时批次的线程，按需创建，空闲后回收
+     */
+    private ExecutorService flushExecutor;
+
+    /**
+     * 默认批次，以及按前缀长度从长到短排列的前缀批次；关闭合并的窗口对应 null
+     */
+    private Batcher defaultBatcher;
+    private final List<Map.Entry<String, Batcher>> prefixBatchers = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        CacheProperties.Coalescing coalescing = cacheProperties.getCoalescing();
+        scheduler = Executors.newScheduledThreadPool(Math.max(1, coalescing.getThreads()), new DaemonThreadFactory("get-coalescer-Thread-"));
+        flushExecutor = Executors.newCachedThreadPool(new DaemonThreadFactory("get-coalescer-flush-Thread-"));
+        defaultBatcher = newBatcher(coalescing.getWindow());
+        coalescing.getPrefixes().forEach((prefix, window) ->
+                prefixBatchers.add(new AbstractMap.SimpleImmutableEntry<>(prefix, newBatcher(window))));
+        prefixBatchers.sort((a, b) -> b.getKey().length() - a.getKey().length());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+        flushExecutor.shutdownNow();
+    }
+
+    /**
+     * 读取缓存，所属窗口关闭合并时直接读取
+     */
+    public Object get(String key) {
+        Batcher batcher = batcherFor(key);
+        if (batcher == null) {
+            return redisTemplate.opsForValue().get(key);
+        }
+        requests.increment();
+        try {
+            return batcher.submit(key).join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * 经过合并的读请求数
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * 实际发送的批次数
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    private Batcher batcherFor(String key) {
+        for (Map.Entry<String, Batcher> entry : prefixBatchers) {
+            if (key.startsWith(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return defaultBatcher;
+    }
+
+    private Batcher newBatcher(CacheProperties.Window window) {
+        if (!window.isEnabled()) {
+            return null;
+        }
+        return new Batcher(Math.max(1, window.getMaxBatchSize()), window.getMaxDelay().toNanos());
+    }
+
+    /**
+     * 读取一批 key，同一个 key 的多个请求共享一次读取结果
+     */
+    private void flush(List<PendingGet> batch) {
+        Map<String, List<CompletableFuture<Object>>> waiters = new LinkedHashMap<>();
+        for (PendingGet pending : batch) {
+            waiters.computeIfAbsent(pending.key, k -> new ArrayList<>(1)).add(pending.future);
+        }
+        List<String> keys = new ArrayList<>(waiters.keySet());
+        try {
+            batches.increment();
+            List<Object> values = multiGet(keys);
+            for (int i = 0; i < keys.size(); i++) {
+                Object value = values == null ? null : values.get(i);
+                waiters.get(keys.get(i)).forEach(future -> future.complete(value));
+            }
+        } catch (Exception ex) {
+            log.error("coalesced get has a error, reason -> {}", ex.getMessage());
+            waiters.values().forEach(futures -> futures.forEach(future -> future.completeExceptionally(ex)));
+        }
+    }
+
+    private List<Object> multiGet(List<String> keys) {
+        if (keys.size() == 1) {
+            List<Object> values = new ArrayList<>(1);
+            values.add(redisTemplate.opsForValue().get(keys.get(0)));
+            return values;
+        }
+        if (clusterBatchExecutor.isCluster()) {
+            return clusterBatchExecutor.multiGet(keys);
+        }
+        return redisTemplate.opsForValue().multiGet(keys);
+    }
+
+    /**
+     * 一个合并窗口内的批次
+     */
+    private final class Batcher {
+
+        private final int maxBatchSize;
+        private final long maxDelayNanos;
+
+        /**
+         * 当前正在攒的批次，由 this 保护
+         */
+        private List<PendingGet> pending = new ArrayList<>();
+
+        Batcher(int maxBatchSize, long maxDelayNanos) {
+            this.maxBatchSize = maxBatchSize;
+            this.maxDelayNanos = maxDelayNanos;
+        }
+
+        CompletableFuture<Object> submit(String key) {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            List<PendingGet> full = null;
+            synchronized (this) {
+                pending.add(new PendingGet(key, future));
+                if (pending.size() >= maxBatchSize) {
+                    full = pending;
+                    pending = new ArrayList<>();
+                } else if (pending.size() == 1) {
+                    scheduler.schedule(this::flushPending, maxDelayNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+            if (full != null) {
+                flush(full);
+            }
+            return future;
+        }
+
+        /**
+         * 定时取出批次交给发送线程；批次已经因攒满发送时，只会提前发送之后的新批次
+         */
+        private void flushPending() {
+            List<PendingGet> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+            }
+            try {
+                flushExecutor.execute(() -> flush(batch));
+            } catch (RejectedExecutionException ex) {
+                // 已经关闭
+                batch.forEach(get -> get.future.completeExceptionally(ex));
+            }
+        }
+    }
+
+    private static final class PendingGet {
+        final String key;
+        final CompletableFuture<Object> future;
+
+        PendingGet(String key, CompletableFuture<Object> future) {
+            this.key = key;
+            this.future = future;
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger atomicInteger = new AtomicInteger(0);
+        private final String namePrefix;
+
+        DaemonThreadFactory(String namePrefix) {
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable);
+            thread.setName(namePrefix + atomicInteger.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.pci.hjmos.cache.service.impl;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import redis.clients.jedis.BinaryJedis;
+import redis.clients.jedis.BinaryJedisCluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Jedis 实现，单机为 Jedis，集群为 JedisCluster，两者的命令方法一样但没有共同的接口，只能分开执行
+ */
+class JedisDriverCommands implements DriverCommands {
+
+    private static final byte[] NX = "NX".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PX = "PX".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] COMPARE_AND_DELETE_SCRIPT = COMPARE_AND_DELETE_LUA.getBytes(StandardCharsets.UTF_8);
+
+    @Override
+    public boolean setIfAbsent(RedisConnection connection, byte[] key, byte[] value, long expireMillis) {
+        Object nativeConnection = connection.getNativeConnection();
+        String result;
+        if (nativeConnection instanceof BinaryJedisCluster) {
+            result = ((BinaryJedisCluster) nativeConnection).set(key, value, NX, PX, expireMillis);
+        } else {
+            result = ((BinaryJedis) nativeConnection).set(key, value, NX, PX, expireMillis);
+        }
+        return "OK".equals(result);
+    }
+
+    @Override
+    public boolean compareAndDelete(RedisConnection connection, byte[] key, byte[] value) {
+        Object nativeConnection = connection.getNativeConnection();
+        List<byte[]> keys = Collections.singletonList(key);
+        List<byte[]> args = Collections.singletonList(value);
+        Object result;
+        // 集群模式下 Spring 的脚本方法直接抛出不支持的异常，只能用原生连接执行
+        if (nativeConnection instanceof BinaryJedisCluster) {
+            result = ((BinaryJedisCluster) nativeConnection).eval(COMPARE_AND_DELETE_SCRIPT, keys, args);
+        } else {
+            result = ((BinaryJedis) nativeConnection).eval(COMPARE_AND_DELETE_SCRIPT, keys, args);
+        }
+        return result instanceof Long && (Long) result > 0;
+    }
+}
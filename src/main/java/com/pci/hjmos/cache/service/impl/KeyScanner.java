@@ -0,0 +1,112 @@
+package com.pci.hjmos.cache.service.impl;
+
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 基于 SCAN 游标的 key 遍历，每次只取一批，不会像 KEYS 一样长时间阻塞 Redis
+ * 单机模式在一条独占连接上遍历；集群模式依次遍历每个主节点，前一个节点遍历完才打开下一个节点的游标
+ * 返回的 Stream 是惰性的，持有连接，用完必须关闭（try-with-resources）；遍历期间 key 有变化时同一个 key 可能出现多次
+ */
+final class KeyScanner {
+
+    private KeyScanner() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static Stream<String> scan(RedisTemplate<String, Object> redisTemplate, boolean cluster, String pattern, int batchSize) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(batchSize).build();
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        Iterator<byte[]> iterator;
+        Runnable closer;
+        if (cluster) {
+            ClusterScanIterator clusterIterator =
+                    new ClusterScanIterator(redisTemplate.getConnectionFactory().getClusterConnection(), options);
+            iterator = clusterIterator;
+            closer = clusterIterator::close;
+        } else {
+            Cursor<byte[]> cursor = redisTemplate.executeWithStickyConnection(
+                    (RedisCallback<Cursor<byte[]>>) connection -> connection.scan(options));
+            iterator = cursor;
+            closer = () -> closeQuietly(cursor);
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false)
+                .map(keySerializer::deserialize)
+                .onClose(closer);
+    }
+
+    private static void closeQuietly(Cursor<?> cursor) {
+        try {
+            cursor.close();
+        } catch (Exception ignored) {
+            // 关闭游标只是释放连接
+        }
+    }
+
+    /**
+     * 依次遍历集群中每个主节点的游标
+     */
+    private static final class ClusterScanIterator implements Iterator<byte[]> {
+
+        private final RedisClusterConnection connection;
+        private final ScanOptions options;
+        private final Iterator<RedisClusterNode> nodes;
+        private Cursor<byte[]> current;
+
+        ClusterScanIterator(RedisClusterConnection connection, ScanOptions options) {
+            this.connection = connection;
+            this.options = options;
+            List<RedisClusterNode> masters = new ArrayList<>();
+            for (RedisClusterNode node : connection.clusterGetNodes()) {
+                if (node.isMaster()) {
+                    masters.add(node);
+                }
+            }
+            this.nodes = masters.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (current == null || !current.hasNext()) {
+                if (current != null) {
+                    closeQuietly(current);
+                    current = null;
+                }
+                if (!nodes.hasNext()) {
+                    return false;
+                }
+                current = connection.scan(nodes.next(), options);
+            }
+            return true;
+        }
+
+        @Override
+        public byte[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        void close() {
+            if (current != null) {
+                closeQuietly(current);
+            }
+            connection.close();
+        }
+    }
+}
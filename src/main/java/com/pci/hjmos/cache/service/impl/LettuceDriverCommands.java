@@ -0,0 +1,53 @@
+package com.pci.hjmos.cache.service.impl;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceExceptionConverter;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lettuce 实现，单机和集群的原生连接都是 RedisClusterAsyncCommands，直接走异步命令后等待结果
+ */
+class LettuceDriverCommands implements DriverCommands {
+
+    private static final LettuceExceptionConverter EXCEPTION_CONVERTER = new LettuceExceptionConverter();
+
+    private final Duration timeout;
+
+    LettuceDriverCommands(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public boolean setIfAbsent(RedisConnection connection, byte[] key, byte[] value, long expireMillis) {
+        RedisFuture<String> future = commands(connection).set(key, value, SetArgs.Builder.nx().px(expireMillis));
+        return "OK".equals(await(future));
+    }
+
+    @Override
+    public boolean compareAndDelete(RedisConnection connection, byte[] key, byte[] value) {
+        RedisFuture<Long> future = commands(connection).eval(COMPARE_AND_DELETE_LUA, ScriptOutputType.INTEGER,
+                new byte[][]{key}, value);
+        Long result = await(future);
+        return result != null && result > 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisClusterAsyncCommands<byte[], byte[]> commands(RedisConnection connection) {
+        return (RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+    }
+
+    private <T> T await(RedisFuture<T> future) {
+        try {
+            return LettuceFutures.awaitOrCancel(future, timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (RuntimeException ex) {
+            throw EXCEPTION_CONVERTER.convert(ex);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.pci.hjmos.cache.service.impl;
+
+import com.pci.hjmos.cache.service.ReactiveCacheService;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ReactiveCacheServiceImpl implements ReactiveCacheService {
+
+    @Resource
+    ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+
+    @Resource
+    ExpiryPolicy expiryPolicy;
+
+    @Override
+    public Mono<Boolean> set(String key, Object value) {
+        return reactiveRedisTemplate.opsForValue().set(key, value);
+    }
+
+    @Override
+    public Mono<Boolean> set(String key, Object value, long expireTime) {
+        long seconds = expiryPolicy.expireSeconds(key, expireTime);
+        if (seconds <= 0) {
+            // SET EX 不接受不大于 0 的过期时间，与 EXPIRE 0 一样直接删除
+            return reactiveRedisTemplate.delete(key).thenReturn(true);
+        }
+        return reactiveRedisTemplate.opsForValue().set(key, value, Duration.ofSeconds(seconds));
+    }
+
+    @Override
+    public Mono<Boolean> multiSet(Map<String, Object> maps) {
+        return reactiveRedisTemplate.opsForValue().multiSet(maps);
+    }
+
+    @Override
+    public Mono<Object> get(String key) {
+        return reactiveRedisTemplate.opsForValue().get(key);
+    }
+
+    @Override
+    public Mono<List<Object>> multiGet(Collection<String> keys) {
+        return reactiveRedisTemplate.opsForValue().multiGet(keys);
+    }
+
+    @Override
+    public Mono<Boolean> delete(String key) {
+        return reactiveRedisTemplate.delete(key).map(count -> count > 0);
+    }
+
+    @Override
+    public Mono<Boolean> hPut(String key, String hashKey, Object hashValue) {
+        return reactiveRedisTemplate.opsForHash().put(key, hashKey, hashValue);
+    }
+
+    @Override
+    public Mono<Object> hGet(String key, String hashKey) {
+        return reactiveRedisTemplate.opsForHash().get(key, hashKey);
+    }
+
+    @Override
+    public Flux<Map.Entry<Object, Object>> hEntries(String key) {
+        return reactiveRedisTemplate.opsForHash().entries(key);
+    }
+
+    @Override
+    public Flux<Map.Entry<Object, Object>> hScan(String key, int batchSize) {
+        return reactiveRedisTemplate.opsForHash().scan(key, ScanOptions.scanOptions().count(batchSize).build());
+    }
+
+    @Override
+    public Mono<Long> lSet(String key, Object value) {
+        return reactiveRedisTemplate.opsForList().rightPush(key, value);
+    }
+
+    @Override
+    public Flux<Object> lGet(String key, long start, long end) {
+        return reactiveRedisTemplate.opsForList().range(key, start, end);
+    }
+
+    @Override
+    public Flux<Object> lScan(String key, int batchSize) {
+        return lRangeFrom(key, 0L, batchSize);
+    }
+
+    @Override
+    public Flux<Object> sScan(String key, int batchSize) {
+        return reactiveRedisTemplate.opsForSet().scan(key, ScanOptions.scanOptions().count(batchSize).build());
+    }
+
+    @Override
+    public Flux<ZSetOperations.TypedTuple<Object>> zScan(String key, int batchSize) {
+        return reactiveRedisTemplate.opsForZSet().scan(key, ScanOptions.scanOptions().count(batchSize).build());
+    }
+
+    @Override
+    public Mono<Boolean> expireKey(String key, long expireTime) {
+        return reactiveRedisTemplate.expire(key, Duration.ofSeconds(expiryPolicy.expireSeconds(key, expireTime)));
+    }
+
+    @Override
+    public Mono<Boolean> existsKey(String key) {
+        return reactiveRedisTemplate.hasKey(key);
+    }
+
+    @Override
+    public Mono<Long> batchDelete(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return reactiveRedisTemplate.delete(new ArrayList<>(keys).toArray(new String[0]));
+    }
+
+    /**
+     * 从 start 开始分批读取，上一批读完再读下一批，某一批不满 batchSize 说明已经到结尾；
+     * 各批依次展开，订阅深度不随批数增长
+     */
+    private Flux<Object> lRangeFrom(String key, long start, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        return Flux.range(0, Integer.MAX_VALUE)
+                .concatMap(index -> {
+                    long from = start + (long) index * batchSize;
+                    return reactiveRedisTemplate.opsForList().range(key, from, from + batchSize - 1).collectList();
+                }, 1)
+                .takeUntil(items -> items.size() < batchSize)
+                .concatMapIterable(items -> items, 1);
+    }
+}
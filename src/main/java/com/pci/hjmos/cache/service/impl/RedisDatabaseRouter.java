@@ -0,0 +1,147 @@
+package com.pci.hjmos.cache.service.impl;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按数据库下标路由 RedisTemplate
+ * 默认数据库直接使用容器中的 redisTemplate，其它数据库第一次使用时按默认连接工厂的驱动、地址、密码、超时、连接池配置
+ * 另建一个连接工厂和模板，Lettuce 共用同一个 ClientResources，之后一直复用；
+ * 切换数据库只是换一个模板引用，不会重建或断开其它调用方正在使用的连接
+ * 集群模式只有 0 号库
+ */
+@Log4j2
+@Component
+public class RedisDatabaseRouter {
+
+    @Resource
+    RedisTemplate<String, Object> redisTemplate;
+
+    private final Map<Integer, RedisTemplate<String, Object>> templates = new ConcurrentHashMap<>();
+
+    /**
+     * 默认数据库下标
+     */
+    public int getDefaultDatabase() {
+        RedisConnectionFactory factory = redisTemplate.getConnectionFactory();
+        if (factory instanceof LettuceConnectionFactory) {
+            return ((LettuceConnectionFactory) factory).getDatabase();
+        }
+        if (factory instanceof JedisConnectionFactory) {
+            return ((JedisConnectionFactory) factory).getDatabase();
+        }
+        return 0;
+    }
+
+    /**
+     * 默认数据库的模板
+     */
+    public RedisTemplate<String, Object> getDefaultTemplate() {
+        return redisTemplate;
+    }
+
+    /**
+     * 指定数据库的模板，第一次使用时创建
+     * @param indexDB 数据库下标
+     */
+    public RedisTemplate<String, Object> getTemplate(int indexDB) {
+        if (indexDB == getDefaultDatabase()) {
+            return redisTemplate;
+        }
+        return templates.computeIfAbsent(indexDB, this::createTemplate);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        for (RedisTemplate<String, Object> template : templates.values()) {
+            try {
+                ((DisposableBean) template.getConnectionFactory()).destroy();
+            } catch (Exception ex) {
+                log.warn("destroy redis connection factory has a error, reason -> {}", ex.getMessage());
+            }
+        }
+        templates.clear();
+    }
+
+    private RedisTemplate<String, Object> createTemplate(int indexDB) {
+        if (indexDB < 0) {
+            throw new IllegalArgumentException("database index must not be negative: " + indexDB);
+        }
+        RedisConnectionFactory factory = createFactory(redisTemplate.getConnectionFactory(), indexDB);
+
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(factory);
+        template.setKeySerializer(redisTemplate.getKeySerializer());
+        template.setHashKeySerializer(redisTemplate.getHashKeySerializer());
+        template.setValueSerializer(redisTemplate.getValueSerializer());
+        template.setHashValueSerializer(redisTemplate.getHashValueSerializer());
+        template.afterPropertiesSet();
+        log.info("create redis template for database {}", indexDB);
+        return template;
+    }
+
+    /**
+     * 按默认连接工厂的驱动类型创建新的连接工厂
+     */
+    private static RedisConnectionFactory createFactory(RedisConnectionFactory source, int indexDB) {
+        if (source instanceof LettuceConnectionFactory) {
+            LettuceConnectionFactory lettuce = (LettuceConnectionFactory) source;
+            checkNotCluster(lettuce.isClusterAware(), indexDB);
+            LettuceConnectionFactory factory = new LettuceConnectionFactory(
+                    configuration(lettuce.isRedisSentinelAware(), lettuce.getSentinelConfiguration(), lettuce.getStandaloneConfiguration(), indexDB),
+                    lettuce.getClientConfiguration());
+            factory.afterPropertiesSet();
+            return factory;
+        }
+        if (source instanceof JedisConnectionFactory) {
+            JedisConnectionFactory jedis = (JedisConnectionFactory) source;
+            checkNotCluster(jedis.isRedisClusterAware(), indexDB);
+            RedisConfiguration configuration = configuration(jedis.isRedisSentinelAware(), jedis.getSentinelConfiguration(),
+                    jedis.getStandaloneConfiguration(), indexDB);
+            JedisConnectionFactory factory = configuration instanceof RedisSentinelConfiguration
+                    ? new JedisConnectionFactory((RedisSentinelConfiguration) configuration, jedis.getClientConfiguration())
+                    : new JedisConnectionFactory((RedisStandaloneConfiguration) configuration, jedis.getClientConfiguration());
+            factory.afterPropertiesSet();
+            return factory;
+        }
+        throw new IllegalStateException("unsupported redis connection factory: " + source);
+    }
+
+    private static void checkNotCluster(boolean cluster, int indexDB) {
+        if (cluster) {
+            throw new IllegalStateException("redis cluster only supports database 0, but was " + indexDB);
+        }
+    }
+
+    /**
+     * 复制默认连接工厂的地址配置，只替换数据库下标
+     */
+    private static RedisConfiguration configuration(boolean sentinelAware, RedisSentinelConfiguration sentinel,
+                                                    RedisStandaloneConfiguration standalone, int indexDB) {
+        if (sentinelAware) {
+            RedisSentinelConfiguration copy = new RedisSentinelConfiguration();
+            copy.setMaster(sentinel.getMaster());
+            copy.setSentinels(sentinel.getSentinels());
+            copy.setPassword(sentinel.getPassword());
+            copy.setDatabase(indexDB);
+            return copy;
+        }
+        RedisStandaloneConfiguration copy = new RedisStandaloneConfiguration(standalone.getHostName(), standalone.getPort());
+        copy.setPassword(standalone.getPassword());
+        copy.setDatabase(indexDB);
+        return copy;
+    }
+}
@@ -0,0 +1,105 @@
+package com.pci.hjmos.cache.service.impl;
+
+import com.pci.hjmos.cache.config.CacheProperties;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 提前刷新的后台执行器
+ * 线程数和队列长度都有上限，队列满时直接放弃本次刷新，调用方继续使用旧值，下次读取时再尝试；
+ * 同一个 key 同一时刻只提交一个刷新任务
+ */
+@Log4j2
+@Component
+public class RefreshAheadExecutor {
+
+    @Resource
+    CacheProperties cacheProperties;
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        CacheProperties.Refresh refresh = cacheProperties.getRefresh();
+        int threads = Math.max(1, refresh.getThreads());
+        executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, refresh.getQueueCapacity())), new DaemonThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 提交 key 的刷新任务，该 key 已经在刷新或队列已满时不提交
+     * @return 是否提交
+     */
+    public boolean submit(String key, Runnable refresh) {
+        if (!refreshing.add(key)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    refresh.run();
+                    refreshes.increment();
+                } catch (Exception ex) {
+                    log.error("refresh cache has a error, key -> {}", key, ex);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException ex) {
+            refreshing.remove(key);
+            rejections.increment();
+            return false;
+        }
+    }
+
+    /**
+     * 已完成的刷新次数
+     */
+    public long getRefreshCount() {
+        return refreshes.sum();
+    }
+
+    /**
+     * 队列已满被放弃的刷新次数
+     */
+    public long getRejectedCount() {
+        return rejections.sum();
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger atomicInteger = new AtomicInteger(0);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable);
+            thread.setName("refresh-ahead-Thread-" + atomicInteger.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.pci.hjmos.cache.service.impl;
+
+import com.pci.hjmos.cache.listener.KeyspaceInvalidationListener;
+import com.pci.hjmos.cache.localCache.NearCache;
+import com.pci.hjmos.cache.service.BatchOps;
+import com.pci.hjmos.cache.service.TieredCacheStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 二级缓存：一级为进程内的 NearCache，二级为 Redis
+ * 只缓存 String 类型操作的值：读请求先查一级缓存，未命中再用一次管道同时取 Redis 中的值和剩余存活时间并回填，
+ * 回填的存活时间取 hjmos.cache.tiered.expire-after-write 与 Redis 剩余存活时间中的较小值；
+ * 写入、删除、修改过期时间都是先写 Redis 再失效一级缓存，下次读取时重新回填；
+ * 开启 hjmos.cache.invalidation.enabled 后，其它节点的写入也会通过键空间通知失效本节点的一级缓存
+ * 通过 hjmos.cache.tiered.enabled=true 开启，开启后作为首选的 CacheService 注入
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "hjmos.cache.tiered", name = "enabled", havingValue = "true")
+public class TieredCacheService extends CacheServiceImpl {
+
+    @Autowired
+    ObjectProvider<KeyspaceInvalidationListener> invalidationListener;
+
+    private final TieredCacheStats stats = new TieredCacheStats();
+
+    private NearCache nearCache;
+
+    @PostConstruct
+    public void init() {
+        nearCache = new NearCache(cacheProperties.getTiered().getMaximumSize(),
+                cacheProperties.getLocal().getEvictionPolicy());
+        invalidationListener.ifAvailable(listener -> {
+            listener.register(nearCache::invalidate);
+            listener.registerReset(nearCache::invalidateAll);
+        });
+    }
+
+    @Override
+    public void set(String key, Object value) {
+        super.set(key, value);
+        nearCache.invalidate(key);
+    }
+
+    @Override
+    public void set(String key, Object value, long expireTime) {
+        super.set(key, value, expireTime);
+        nearCache.invalidate(key);
+    }
+
+    @Override
+    public void multiSet(Map<String, Object> maps) {
+        super.multiSet(maps);
+        maps.keySet().forEach(nearCache::invalidate);
+    }
+
+    @Override
+    public Object get(String key) {
+        Object value = nearCache.get(key);
+        if (value != null) {
+            stats.recordL1Hit();
+            return value;
+        }
+        stats.recordL1Miss();
+
+        // 开启熔断时 Redis 读取经由熔断器执行，降级时返回熔断器本地降级缓存中的旧值，不回填一级缓存
+        if (circuitBreaker == null) {
+            return getFromRedis(key);
+        }
+        return circuitBreaker.read(database(), key, () -> getFromRedis(key));
+    }
+
+    /**
+     * 一级缓存命中的部分直接返回，其余 key 合并成一次 Redis 批量查询；
+     * 批量查询拿不到剩余存活时间，结果不回填一级缓存
+     */
+    @Override
+    public List<Object> multiGet(Collection<String> keys) {
+        List<Object> values = new ArrayList<>(keys.size());
+        List<String> missKeys = new ArrayList<>();
+        List<Integer> missIndexes = new ArrayList<>();
+        for (String key : keys) {
+            Object value = nearCache.get(key);
+            if (value != null) {
+                stats.recordL1Hit();
+            } else {
+                stats.recordL1Miss();
+                missKeys.add(key);
+                missIndexes.add(values.size());
+            }
+            values.add(value);
+        }
+        if (missKeys.isEmpty()) {
+            return values;
+        }
+        List<Object> missValues = super.multiGet(missKeys);
+        for (int i = 0; i < missIndexes.size(); i++) {
+            Object value = missValues == null ? null : missValues.get(i);
+            if (value == null) {
+                stats.recordL2Miss();
+            } else {
+                stats.recordL2Hit();
+            }
+            values.set(missIndexes.get(i), value);
+        }
+        return values;
+    }
+
+    /**
+     * 管道中写入、删除、修改过期时间的 String 类型 key 在执行后失效一级缓存，管道中的读取不经过一级缓存
+     */
+    @Override
+    public List<Object> pipeline(Consumer<BatchOps> batch) {
+        DefaultBatchOps batchOps = new DefaultBatchOps(expiryPolicy);
+        batch.accept(batchOps);
+        List<Object> results = executeBatch(batchOps);
+        batchOps.getWrittenKeys().forEach(nearCache::invalidate);
+        return results;
+    }
+
+    @Override
+    public Boolean delete(String key) {
+        Boolean result = super.delete(key);
+        nearCache.invalidate(key);
+        return result;
+    }
+
+    @Override
+    public void expireKey(String key, long expireTime) {
+        super.expireKey(key, expireTime);
+        nearCache.invalidate(key);
+    }
+
+    @Override
+    public Long batchDelete(Collection<String> keys) {
+        Long result = super.batchDelete(keys);
+        keys.forEach(nearCache::invalidate);
+        return result;
+    }
+
+    @Override
+    Long unlink(List<String> keys) {
+        Long result = super.unlink(keys);
+        keys.forEach(nearCache::invalidate);
+        return result;
+    }
+
+    /**
+     * 一级缓存命中统计
+     */
+    public TieredCacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * 读 Redis 并回填一级缓存
+     */
+    private Object getFromRedis(String key) {
+        // 读 Redis 期间如果有失效通知，回填后立即撤销，避免把旧值留在一级缓存中
+        long stamp = nearCache.stamp(key);
+        List<Object> results = getWithTtl(key);
+        Object value = results.get(0);
+        if (value == null) {
+            stats.recordL2Miss();
+            return null;
+        }
+        stats.recordL2Hit();
+        nearCache.putIfNotInvalidated(key, value, localTtl((Long) results.get(1)), stamp);
+        return value;
+    }
+
+    /**
+     * 一级缓存存活时间，不超过 Redis 中的剩余存活时间
+     * @param redisTtl Redis 剩余存活时间(毫秒ms)，-1 表示永不过期，-2 表示 key 不存在
+     */
+    private long localTtl(Long redisTtl) {
+        long maxTtl = cacheProperties.getTiered().getExpireAfterWrite().toMillis();
+        if (redisTtl == null || redisTtl == -1L) {
+            return maxTtl;
+        }
+        return Math.min(maxTtl, redisTtl);
+    }
+}
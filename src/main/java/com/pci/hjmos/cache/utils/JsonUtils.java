@@ -6,6 +6,8 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -16,15 +18,23 @@ import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Log4j2
 public class JsonUtils {
     private static ObjectMapper objectMapper;
 
+    /**
+     * 复用的 writer，以及按目标类缓存的 reader，省去每次调用时的配置查找
+     */
+    private static ObjectWriter objectWriter;
+    private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+
     static {
         objectMapper = new ObjectMapper();
         objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
@@ -36,6 +46,7 @@ public class JsonUtils {
         objectMapper.disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
         // 指定要序列化的域，field,get和set,以及修饰符范围，ANY是都有包括private和public
 //        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        objectWriter = objectMapper.writer();
     }
 
     /**
@@ -81,7 +92,7 @@ public class JsonUtils {
         }
 
         try {
-            return objectMapper.writeValueAsBytes(bean);
+            return objectWriter.writeValueAsBytes(bean);
         } catch (JsonProcessingException e) {
             log.error("JsonUtils#toJsonByte(Object) catch a exception -> ",e);
 
@@ -89,6 +100,31 @@ public class JsonUtils {
         }
     }
 
+    /**
+     * 将java-bean对象以 UTF-8 json 直接写入输出流，不生成中间字符串
+     *
+     * @param out  输出流
+     * @param bean java-bean
+     * @throws IOException 序列化失败
+     */
+    public static void writeJson(OutputStream out, Object bean) throws IOException {
+        objectWriter.writeValue(out, bean);
+    }
+
+    /**
+     * 将 json byte 的指定片段转换成java对象，使用按类缓存的 reader
+     *
+     * @param jsonByte  json byte
+     * @param offset    起始位置
+     * @param length    长度
+     * @param beanClass class
+     * @return <T>
+     * @throws IOException 反序列化失败
+     */
+    public static <T> T readJson(byte[] jsonByte, int offset, int length, Class<T> beanClass) throws IOException {
+        return readerFor(beanClass).readValue(jsonByte, offset, length);
+    }
+
     /**
      * 将list转换成json字符串
      *
@@ -166,7 +202,7 @@ public class JsonUtils {
         }
 
         try {
-            return objectMapper.readValue(jsonByte, beanClass);
+            return readerFor(beanClass).readValue(jsonByte);
         } catch (IOException e) {
             log.error("JsonUtils#toBean(byte[],Class) catch a exception -> ",e);
 
@@ -263,4 +299,8 @@ public class JsonUtils {
         }
 
     }
+
+    private static ObjectReader readerFor(Class<?> beanClass) {
+        return READERS.computeIfAbsent(beanClass, objectMapper::readerFor);
+    }
 }
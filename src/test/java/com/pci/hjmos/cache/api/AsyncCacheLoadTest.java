@@ -0,0 +1,163 @@
+package com.pci.hjmos.cache.api;
+
+import com.pci.hjmos.cache.CacheApplication;
+import com.pci.hjmos.cache.service.AsyncCacheService;
+import com.pci.hjmos.cache.service.CacheService;
+import com.pci.hjmos.cache.service.ReactiveCacheService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import reactor.core.publisher.Flux;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 阻塞接口与异步、响应式接口的线程占用和吞吐量对比
+ * 阻塞接口用 64 个线程并发读取；异步、响应式接口只用调用线程发出请求，同时在途的请求数上限为 256
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = {CacheApplication.class})
+@Slf4j
+public class AsyncCacheLoadTest {
+
+    private static final int REQUESTS = 20000;
+    private static final int KEYS = 100;
+    private static final int THREADS = 64;
+    private static final int IN_FLIGHT = 256;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private AsyncCacheService asyncCacheService;
+
+    @Autowired
+    private ReactiveCacheService reactiveCacheService;
+
+    @Test
+    public void testAsyncApi() throws Exception {
+        asyncCacheService.set("async:a", "a", 100L).get();
+        Assert.assertEquals("a", asyncCacheService.get("async:a").get());
+        Assert.assertNull(asyncCacheService.get("async:missing").get());
+        asyncCacheService.hPut("async:h", "f", "v").get();
+        Assert.assertEquals("v", asyncCacheService.hEntries("async:h").get().get("f"));
+        Assert.assertEquals(Arrays.asList("a", null),
+                asyncCacheService.multiGet(Arrays.asList("async:a", "async:missing")).get());
+        Assert.assertEquals(Long.valueOf(2), asyncCacheService.batchDelete(Arrays.asList("async:a", "async:h")).get());
+        // 过期时间不大于 0 时删除 key
+        asyncCacheService.set("async:a", "a", 100L).get();
+        asyncCacheService.set("async:a", "a", 0L).get();
+        Assert.assertNull(asyncCacheService.get("async:a").get());
+    }
+
+    /**
+     * 分批 LRANGE 按下游请求量读取
+     */
+    @Test
+    public void testReactiveListScan() {
+        cacheService.delete("reactive:list");
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            list.add("e" + i);
+        }
+        cacheService.lMultiSet("reactive:list", list);
+        Assert.assertEquals(list, reactiveCacheService.lScan("reactive:list", 100).collectList().block());
+        Assert.assertEquals(list.subList(0, 10), reactiveCacheService.lScan("reactive:list", 100).take(10).collectList().block());
+        // 每批一个元素，批数多时订阅深度也不增长
+        Assert.assertEquals(Long.valueOf(250), reactiveCacheService.lScan("reactive:list", 1).count().block());
+        try {
+            reactiveCacheService.lScan("reactive:list", 0);
+            Assert.fail("batchSize 0 should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // 预期异常
+        }
+        cacheService.delete("reactive:list");
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+        for (int i = 0; i < KEYS; i++) {
+            cacheService.set("load:" + i, "value" + i, 300L);
+        }
+        // 预热
+        runBlocking(2000);
+        runAsync(2000);
+
+        threadMXBean.resetPeakThreadCount();
+        int baseThreads = threadMXBean.getThreadCount();
+        long start = System.nanoTime();
+        runBlocking(REQUESTS);
+        report("blocking", start, threadMXBean.getPeakThreadCount() - baseThreads);
+
+        threadMXBean.resetPeakThreadCount();
+        baseThreads = threadMXBean.getThreadCount();
+        start = System.nanoTime();
+        runAsync(REQUESTS);
+        report("async", start, threadMXBean.getPeakThreadCount() - baseThreads);
+
+        threadMXBean.resetPeakThreadCount();
+        baseThreads = threadMXBean.getThreadCount();
+        start = System.nanoTime();
+        List<Object> values = Flux.range(0, REQUESTS)
+                .flatMap(i -> reactiveCacheService.get("load:" + (i % KEYS)), IN_FLIGHT)
+                .collectList()
+                .block();
+        report("reactive", start, threadMXBean.getPeakThreadCount() - baseThreads);
+        Assert.assertEquals(REQUESTS, values.size());
+    }
+
+    private void runBlocking(int requests) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger misses = new AtomicInteger();
+        for (int i = 0; i < requests; i++) {
+            String key = "load:" + (i % KEYS);
+            executor.execute(() -> {
+                if (cacheService.get(key) == null) {
+                    misses.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        Assert.assertEquals(0, misses.get());
+    }
+
+    private void runAsync(int requests) throws Exception {
+        Semaphore inFlight = new Semaphore(IN_FLIGHT);
+        AtomicInteger misses = new AtomicInteger();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            futures[i] = asyncCacheService.get("load:" + (i % KEYS)).whenComplete((value, ex) -> {
+                if (value == null) {
+                    misses.incrementAndGet();
+                }
+                inFlight.release();
+            });
+        }
+        CompletableFuture.allOf(futures).get(1, TimeUnit.MINUTES);
+        Assert.assertEquals(0, misses.get());
+    }
+
+    private void report(String name, long startNanos, int extraThreads) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        log.info("{}: {} requests in {} ms, {} ops/s, extra threads {}",
+                name, REQUESTS, millis, REQUESTS * 1000L / Math.max(1, millis), extraThreads);
+    }
+}
@@ -3,6 +3,7 @@ package com.pci.hjmos.cache.api;
 import com.pci.hjmos.cache.CacheApplication;
 import com.pci.hjmos.cache.service.CacheService;
 import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +13,13 @@ import org.springframework.test.context.junit4.SpringRunner;
 
 import javax.annotation.Resource;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(classes = {CacheApplication.class})
@@ -205,6 +213,171 @@ public class CacheTest {
         log.info("测试list先清除元素再批量新增接口，新增后list有{}个数据",num2);
     }
 
+    /**
+     *  测试先清除再批量新增且设置过期时间接口，清除、新增、设置过期时间在同一个事务中完成
+     */
+    @Test
+    public void testListMultiSetWithExpire(){
+        String key = "list3";
+        List<Object> values = new ArrayList<>();
+        values.add("a");
+        values.add("b");
+        redisService.lMultiSet(key, values);
+
+        Long num = redisService.lMultiSet(key, values, true, 100L);
+        log.info("测试list先清除元素再批量新增且设置过期时间接口，新增后list有{}个数据",num);
+        Assert.assertEquals(Long.valueOf(2), num);
+        Assert.assertEquals(values, redisService.lGet(key));
+    }
+
+    /***************  管道批量操作  ******************/
+    /**
+     * 测试管道批量接口，结果与命令一一对应
+     */
+    @Test
+    public void testPipeline(){
+        List<Object> results = redisService.pipeline(batch -> batch
+                .set("pipeline:a", "1", 100L)
+                .hPut("pipeline:h", "f", "v")
+                .zAdd("pipeline:z", "m", 1.0)
+                .expireKey("pipeline:h", 100L)
+                .get("pipeline:a")
+                .hGet("pipeline:h", "f"));
+        log.info("测试管道批量接口，结果：{}",results);
+        Assert.assertEquals(6, results.size());
+        Assert.assertEquals("1", results.get(4));
+        Assert.assertEquals("v", results.get(5));
+    }
+
+    /**
+     * 对比逐条写入与管道批量写入的耗时
+     */
+    @Test
+    public void testPipelineThroughput(){
+        int count = 2000;
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            redisService.set("pipeline:key" + i, "value" + i, 100L);
+        }
+        long single = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        List<Object> results = redisService.pipeline(batch -> {
+            for (int i = 0; i < count; i++) {
+                batch.set("pipeline:key" + i, "value" + i, 100L);
+            }
+        });
+        long pipelined = System.currentTimeMillis() - start;
+        log.info("写入{}个key，逐条耗时{}ms，管道耗时{}ms",count,single,pipelined);
+        Assert.assertEquals(count, results.size());
+    }
+
+    /***************  key 遍历  ******************/
+    /**
+     * 测试 SCAN 遍历和按模式删除
+     */
+    @Test
+    public void testScanAndDeleteByPattern(){
+        for (int i = 0; i < 500; i++) {
+            redisService.set("scan:key" + i, "value" + i, 100L);
+        }
+        long count;
+        try (Stream<String> keys = redisService.scanKeys("scan:*", 100)) {
+            count = keys.distinct().count();
+        }
+        log.info("测试SCAN遍历接口，匹配到{}个key",count);
+        Assert.assertEquals(500, count);
+
+        long deleted = redisService.deleteByPattern("scan:*", 100);
+        log.info("测试按模式删除接口，删除{}个key",deleted);
+        Assert.assertEquals(500, deleted);
+        try (Stream<String> keys = redisService.scanKeys("scan:*", 100)) {
+            Assert.assertEquals(0, keys.count());
+        }
+    }
+
+    /**
+     * 测试单飞加载：同一个 key 并发未命中只加载一次，不同 key 并行加载
+     */
+    @Test
+    public void testGetOrLoad() throws Exception {
+        redisService.batchDelete(Arrays.asList("load:a", "load:b"));
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        List<Future<Object>> futures = new ArrayList<>();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 20; i++) {
+            String key = i % 2 == 0 ? "load:a" : "load:b";
+            futures.add(executor.submit(() -> redisService.getOrLoad(key, 100L, () -> {
+                loads.incrementAndGet();
+                try {
+                    TimeUnit.MILLISECONDS.sleep(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "db:" + key;
+            })));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            Assert.assertEquals(i % 2 == 0 ? "db:load:a" : "db:load:b", futures.get(i).get());
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        executor.shutdown();
+        log.info("getOrLoad 20 concurrent misses on 2 keys, loads = {}, elapsed = {}ms", loads.get(), elapsed);
+        Assert.assertEquals(2, loads.get());
+        Assert.assertTrue(elapsed < 1000);
+        redisService.batchDelete(Arrays.asList("load:a", "load:b"));
+    }
+
+    /**
+     * 测试按数据库路由，其它库的读写不影响默认库
+     */
+    @Test
+    public void testForDatabase(){
+        CacheService db1 = redisService.forDatabase(1);
+        Assert.assertSame(db1, redisService.forDatabase(1));
+        Assert.assertSame(redisService, redisService.forDatabase(0));
+        redisService.delete("route:key");
+        db1.set("route:key", "db1", 100L);
+        Assert.assertEquals("db1", db1.get("route:key"));
+        Assert.assertNull(redisService.get("route:key"));
+        db1.delete("route:key");
+    }
+
+    /**
+     * 测试 HSCAN / SSCAN / ZSCAN 和分批 LRANGE 惰性遍历
+     */
+    @Test
+    public void testCollectionScan(){
+        Map<String, Object> hash = new HashMap<>();
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            hash.put("f" + i, "v" + i);
+            list.add("e" + i);
+        }
+        redisService.batchDelete(Arrays.asList("scan:hash", "scan:list", "scan:set", "scan:zset"));
+        redisService.hMultiSet("scan:hash", hash);
+        redisService.lMultiSet("scan:list", list);
+        for (int i = 0; i < 1000; i++) {
+            redisService.add("scan:set", "m" + i);
+            redisService.zAdd("scan:zset", "m" + i, i);
+        }
+
+        try (Stream<Map.Entry<Object, Object>> entries = redisService.hScan("scan:hash", 100)) {
+            Assert.assertEquals(1000, entries.map(Map.Entry::getKey).distinct().count());
+        }
+        try (Stream<Object> elements = redisService.lScan("scan:list", 300)) {
+            Assert.assertEquals(list, elements.collect(Collectors.toList()));
+        }
+        try (Stream<Object> members = redisService.sScan("scan:set", 100)) {
+            Assert.assertEquals(1000, members.distinct().count());
+        }
+        try (Stream<ZSetOperations.TypedTuple<Object>> tuples = redisService.zScan("scan:zset", 100)) {
+            Assert.assertEquals(1000, tuples.map(ZSetOperations.TypedTuple::getValue).distinct().count());
+        }
+        redisService.batchDelete(Arrays.asList("scan:hash", "scan:list", "scan:set", "scan:zset"));
+    }
+
     /***************  SET类型  ******************/
     /**
      * 新增元素测试
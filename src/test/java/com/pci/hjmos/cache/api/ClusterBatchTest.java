@@ -0,0 +1,107 @@
+package com.pci.hjmos.cache.api;
+
+import com.pci.hjmos.cache.CacheApplication;
+import com.pci.hjmos.cache.service.CacheService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 集群模式下的批量读写，需要本地 7001~7003 端口的三节点集群，连不上时跳过
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = {CacheApplication.class},
+        properties = "spring.redis.cluster.nodes=127.0.0.1:7001,127.0.0.1:7002,127.0.0.1:7003")
+@Slf4j
+public class ClusterBatchTest {
+
+    @Autowired
+    private CacheService redisService;
+
+    @BeforeClass
+    public static void assumeClusterAvailable() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("127.0.0.1", 7001), 200);
+        } catch (IOException e) {
+            Assume.assumeNoException("redis cluster not available", e);
+        }
+    }
+
+    /**
+     * 跨槽的批量写入、读取、删除，读取结果与输入顺序一致
+     */
+    @Test
+    public void testCrossSlotBatch() {
+        int count = 1000;
+        Map<String, Object> maps = new LinkedHashMap<>();
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            maps.put("cluster:" + i, "value" + i);
+            keys.add("cluster:" + i);
+        }
+        keys.add("cluster:missing");
+
+        List<Object> values = null;
+        Long deleted = null;
+        int rounds = 5;
+        long start = 0L;
+        // 第一轮预热
+        for (int round = 0; round <= rounds; round++) {
+            if (round == 1) {
+                start = System.currentTimeMillis();
+            }
+            redisService.multiSet(maps);
+            values = redisService.multiGet(keys);
+            deleted = redisService.batchDelete(keys);
+        }
+        log.info("集群批量写入、读取、删除{}个key平均耗时{}ms", count, (System.currentTimeMillis() - start) / rounds);
+
+        Assert.assertEquals(count + 1, values.size());
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals("value" + i, values.get(i));
+        }
+        Assert.assertNull(values.get(count));
+        Assert.assertEquals(Long.valueOf(count), deleted);
+    }
+
+    /**
+     * 遍历所有主节点
+     */
+    @Test
+    public void testScanAllNodes() {
+        for (int i = 0; i < 300; i++) {
+            redisService.set("cluster:scan" + i, "value" + i, 100L);
+        }
+        try (Stream<String> keys = redisService.scanKeys("cluster:scan*", 50)) {
+            Assert.assertEquals(300, keys.distinct().count());
+        }
+        Assert.assertEquals(300, redisService.deleteByPattern("cluster:scan*", 50));
+    }
+
+    /**
+     * 集群模式下加锁、按标识解锁
+     */
+    @Test
+    public void testLock() {
+        String key = "cluster:lock";
+        Assert.assertTrue(redisService.setLock(key, "request-1", 10000L));
+        Assert.assertFalse(redisService.setLock(key, "request-2", 10000L));
+        Assert.assertFalse(redisService.releaseDistributedLock(key, "request-2"));
+        Assert.assertTrue(redisService.releaseDistributedLock(key, "request-1"));
+    }
+}
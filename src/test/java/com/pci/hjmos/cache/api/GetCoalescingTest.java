@@ -0,0 +1,77 @@
+package com.pci.hjmos.cache.api;
+
+import com.pci.hjmos.cache.CacheApplication;
+import com.pci.hjmos.cache.service.CacheService;
+import com.pci.hjmos.cache.service.impl.GetCoalescer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = {CacheApplication.class}, properties = {
+        "hjmos.cache.coalescing.enabled=true",
+        "hjmos.cache.coalescing.window.max-delay=5ms",
+        "hjmos.cache.coalescing.prefixes.nocoalesce.enabled=false"})
+@Slf4j
+public class GetCoalescingTest {
+
+    @Autowired
+    private CacheService redisService;
+
+    @Autowired
+    private GetCoalescer getCoalescer;
+
+    /**
+     * 并发读请求合并成少量批次，每个调用方拿到自己 key 的值
+     */
+    @Test
+    public void testConcurrentGetsAreCoalesced() throws Exception {
+        int count = 200;
+        for (int i = 0; i < count; i++) {
+            redisService.set("coalesce:" + i, "value" + i, 100L);
+        }
+        long requests = getCoalescer.getRequestCount();
+        long batches = getCoalescer.getBatchCount();
+
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                String key = "coalesce:" + (i % 50);
+                futures.add(executor.submit(() -> redisService.get(key)));
+            }
+            for (int i = 0; i < count; i++) {
+                Assert.assertEquals("value" + (i % 50), futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        long mergedRequests = getCoalescer.getRequestCount() - requests;
+        long sentBatches = getCoalescer.getBatchCount() - batches;
+        log.info("{}个读请求合并成{}个批次", mergedRequests, sentBatches);
+        Assert.assertEquals(count, mergedRequests);
+        Assert.assertTrue(sentBatches < mergedRequests);
+    }
+
+    /**
+     * 关闭合并的前缀直接读取
+     */
+    @Test
+    public void testDisabledPrefixBypassesCoalescing() {
+        redisService.set("nocoalesce:a", "a", 100L);
+        long requests = getCoalescer.getRequestCount();
+        Assert.assertEquals("a", redisService.get("nocoalesce:a"));
+        Assert.assertNull(redisService.get("nocoalesce:missing"));
+        Assert.assertEquals(requests, getCoalescer.getRequestCount());
+    }
+}
@@ -0,0 +1,36 @@
+package com.pci.hjmos.cache.config;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompressingRedisSerializerTest {
+
+    private final CompressingRedisSerializer serializer = new CompressingRedisSerializer(new DefaultSerializer(), 256);
+
+    @Test
+    public void testLargeValueIsCompressed() {
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            list.add("item-" + i);
+        }
+        byte[] raw = new DefaultSerializer().serialize(list);
+        byte[] bytes = serializer.serialize(list);
+        assertThat(bytes[0]).isEqualTo(SerializerFormat.LZ4);
+        assertThat(bytes.length).isLessThan(raw.length);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(new DefaultSerializer().deserialize(raw));
+        assertThat(serializer.getStats().getCompressedCount()).isEqualTo(1);
+        assertThat(serializer.getStats().compressionRatio()).isLessThan(1.0);
+    }
+
+    @Test
+    public void testSmallValueIsNotCompressed() {
+        byte[] bytes = serializer.serialize("value");
+        assertThat(new DefaultSerializer().deserialize(bytes)).isEqualTo("value");
+        assertThat(serializer.deserialize(bytes)).isEqualTo("value");
+        assertThat(serializer.getStats().getSkippedCount()).isEqualTo(1);
+    }
+}
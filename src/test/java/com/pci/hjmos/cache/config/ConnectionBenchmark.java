@@ -0,0 +1,105 @@
+package com.pci.hjmos.cache.config;
+
+import io.lettuce.core.resource.ClientResources;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lettuce 连接配置对吞吐的影响：共用原生连接 / 连接池独占连接、IO 线程数、TCP_NODELAY
+ * 连接工厂通过 CacheConfig 同样的方法创建，每组参数多线程并发读写同一个小 key
+ * 运行前需要一个可访问的 Redis，地址通过 -Dredis.host、-Dredis.port 指定，默认 127.0.0.1:6379
+ * 运行方式：执行 main 方法，或 java -cp ... org.openjdk.jmh.Main ConnectionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class ConnectionBenchmark {
+
+    private static final String KEY = "benchmark:connection";
+
+    /**
+     * shared：普通命令共用一条原生连接；pooled：每次操作从连接池取独占连接
+     */
+    @Param({"shared", "pooled"})
+    public String mode;
+
+    @Param({"1", "4"})
+    public int ioThreads;
+
+    @Param({"true", "false"})
+    public boolean tcpNoDelay;
+
+    private ClientResources clientResources;
+    private LettuceConnectionFactory factory;
+    private RedisTemplate<String, String> template;
+
+    @Setup
+    public void setup() {
+        RedisProperties redisProperties = new RedisProperties();
+        redisProperties.setHost(System.getProperty("redis.host", "127.0.0.1"));
+        redisProperties.setPort(Integer.getInteger("redis.port", 6379));
+
+        CacheProperties.Connection connection = new CacheProperties.Connection();
+        connection.setIoThreads(ioThreads);
+        connection.setTcpNoDelay(tcpNoDelay);
+        boolean pooled = "pooled".equals(mode);
+        connection.setPooled(pooled);
+        connection.setShareNativeConnection(!pooled);
+        connection.getPool().setMaxActive(8);
+        connection.getPool().setMaxIdle(8);
+
+        clientResources = CacheConfig.clientResources(connection);
+        factory = CacheConfig.lettuceConnectionFactory(redisProperties, connection, clientResources);
+        factory.afterPropertiesSet();
+        template = new RedisTemplate<>();
+        template.setConnectionFactory(factory);
+        template.setDefaultSerializer(StringRedisSerializer.UTF_8);
+        template.afterPropertiesSet();
+        template.opsForValue().set(KEY, "value");
+    }
+
+    @TearDown
+    public void tearDown() {
+        template.delete(KEY);
+        factory.destroy();
+        clientResources.shutdown();
+    }
+
+    @Benchmark
+    public String get() {
+        return template.opsForValue().get(KEY);
+    }
+
+    @Benchmark
+    public void set() {
+        template.opsForValue().set(KEY, "value");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ConnectionBenchmark.class.getSimpleName()).build()).run();
+    }
+}
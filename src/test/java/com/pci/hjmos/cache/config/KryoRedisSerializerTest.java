@@ -0,0 +1,56 @@
+package com.pci.hjmos.cache.config;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class KryoRedisSerializerTest {
+
+    private final KryoRedisSerializer serializer =
+            new KryoRedisSerializer(Collections.singletonList(SerializerBenchmark.User.class));
+
+    @Test
+    public void testObjectRoundTrip() {
+        SerializerBenchmark.User user = SerializerBenchmark.User.sample();
+        byte[] bytes = serializer.serialize(user);
+        assertThat(bytes[0]).isEqualTo(SerializerFormat.KRYO);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(user);
+    }
+
+    @Test
+    public void testStringIsWrittenAsPlainText() {
+        byte[] bytes = serializer.serialize("value");
+        assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo("value");
+        assertThat(serializer.deserialize(bytes)).isEqualTo("value");
+    }
+
+    @Test
+    public void testReadsValueWrittenByDefaultSerializer() {
+        byte[] bytes = new DefaultSerializer().serialize(SerializerBenchmark.User.sample());
+        assertThat(serializer.deserialize(bytes)).isEqualTo(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 没有注册也不在允许的包中的类不能写入，Redis 中写着该类名的数据也不会被创建出来
+     */
+    @Test
+    public void testUnregisteredClassIsRejected() {
+        assertThat(serializer.serialize(new AtomicLong(1))).isEmpty();
+
+        KryoRedisSerializer permissive = new KryoRedisSerializer(Collections.emptyList(), Collections.singletonList("java.util.concurrent."));
+        byte[] bytes = permissive.serialize(new AtomicLong(1));
+        assertThat(permissive.deserialize(bytes)).isInstanceOf(AtomicLong.class);
+        assertThat(serializer.deserialize(bytes)).isNull();
+    }
+
+    @Test
+    public void testNull() {
+        assertThat(serializer.serialize(null)).isEmpty();
+        assertThat(serializer.deserialize(null)).isNull();
+        assertThat(serializer.deserialize(new byte[0])).isNull();
+    }
+}
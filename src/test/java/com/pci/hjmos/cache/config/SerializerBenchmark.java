@@ -0,0 +1,131 @@
+package com.pci.hjmos.cache.config;
+
+import com.pci.hjmos.cache.utils.JsonUtils;
+import lombok.Data;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存值序列化性能对比：DefaultSerializer（json）、TypedJsonRedisSerializer 与 KryoRedisSerializer
+ * json 读取只能拿到字符串，为了对比同样的结果，反序列化一项额外用 JsonUtils.toBean 还原成对象
+ * 序列化不涉及共享状态，单线程测量
+ * 运行方式：执行 main 方法，或 java -cp ... org.openjdk.jmh.Main SerializerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class SerializerBenchmark {
+
+    private DefaultSerializer jsonSerializer;
+    private TypedJsonRedisSerializer typedJsonSerializer;
+    private KryoRedisSerializer kryoSerializer;
+
+    private User user;
+    private byte[] jsonBytes;
+    private byte[] typedJsonBytes;
+    private byte[] kryoBytes;
+
+    @Setup
+    public void setup() {
+        jsonSerializer = new DefaultSerializer();
+        typedJsonSerializer = new TypedJsonRedisSerializer(Collections.singletonList(User.class));
+        kryoSerializer = new KryoRedisSerializer(Collections.singletonList(User.class));
+        user = User.sample();
+        jsonBytes = jsonSerializer.serialize(user);
+        typedJsonBytes = typedJsonSerializer.serialize(user);
+        kryoBytes = kryoSerializer.serialize(user);
+        System.out.println("payload size: json = " + jsonBytes.length + " bytes, typed json = " + typedJsonBytes.length
+                + " bytes, kryo = " + kryoBytes.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return jsonSerializer.serialize(user);
+    }
+
+    @Benchmark
+    public byte[] typedJsonSerialize() {
+        return typedJsonSerializer.serialize(user);
+    }
+
+    @Benchmark
+    public byte[] kryoSerialize() {
+        return kryoSerializer.serialize(user);
+    }
+
+    @Benchmark
+    public User jsonDeserialize() {
+        return JsonUtils.toBean((String) jsonSerializer.deserialize(jsonBytes), User.class);
+    }
+
+    @Benchmark
+    public Object typedJsonDeserialize() {
+        return typedJsonSerializer.deserialize(typedJsonBytes);
+    }
+
+    @Benchmark
+    public Object kryoDeserialize() {
+        return kryoSerializer.deserialize(kryoBytes);
+    }
+
+    @Data
+    public static class User {
+        private Long id;
+        private String name;
+        private String email;
+        private int age;
+        private boolean active;
+        private Date createTime;
+        private List<String> roles;
+        private Map<String, String> attributes;
+
+        static User sample() {
+            User user = new User();
+            user.setId(10086L);
+            user.setName("zhangsan");
+            user.setEmail("zhangsan@example.com");
+            user.setAge(28);
+            user.setActive(true);
+            user.setCreateTime(new Date(1600000000000L));
+            List<String> roles = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                roles.add("role-" + i);
+            }
+            user.setRoles(roles);
+            Map<String, String> attributes = new HashMap<>();
+            for (int i = 0; i < 8; i++) {
+                attributes.put("attr-" + i, "value-" + i);
+            }
+            user.setAttributes(attributes);
+            return user;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SerializerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
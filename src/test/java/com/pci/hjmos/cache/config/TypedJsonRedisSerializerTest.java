@@ -0,0 +1,38 @@
+package com.pci.hjmos.cache.config;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TypedJsonRedisSerializerTest {
+
+    @Test
+    public void testObjectRoundTripWithClassName() {
+        TypedJsonRedisSerializer serializer = new TypedJsonRedisSerializer();
+        SerializerBenchmark.User user = SerializerBenchmark.User.sample();
+        byte[] bytes = serializer.serialize(user);
+        assertThat(bytes[0]).isEqualTo(SerializerFormat.TYPED_JSON);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(user);
+    }
+
+    @Test
+    public void testRegisteredClassUsesCompactHeader() {
+        TypedJsonRedisSerializer serializer =
+                new TypedJsonRedisSerializer(Collections.singletonList(SerializerBenchmark.User.class));
+        SerializerBenchmark.User user = SerializerBenchmark.User.sample();
+        byte[] bytes = serializer.serialize(user);
+        assertThat(bytes[3]).isEqualTo((byte) '{');
+        assertThat(serializer.deserialize(bytes)).isEqualTo(user);
+    }
+
+    @Test
+    public void testStringAndLegacyValue() {
+        TypedJsonRedisSerializer serializer = new TypedJsonRedisSerializer();
+        assertThat(serializer.deserialize(serializer.serialize("value"))).isEqualTo("value");
+        assertThat(serializer.deserialize("{\"a\":1}".getBytes(StandardCharsets.UTF_8))).isEqualTo("{\"a\":1}");
+        assertThat(serializer.deserialize(serializer.serialize(12L))).isEqualTo(12L);
+    }
+}
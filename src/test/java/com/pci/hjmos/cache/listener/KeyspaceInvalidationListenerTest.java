@@ -0,0 +1,148 @@
+package com.pci.hjmos.cache.listener;
+
+import com.pci.hjmos.cache.localCache.ConcurrentHashMapCacheUtils;
+import com.pci.hjmos.cache.localCache.EvictionPolicy;
+import com.pci.hjmos.cache.localCache.LocalCache;
+import com.pci.hjmos.cache.localCache.NearCache;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import org.junit.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 用 DefaultMessage 模拟 Redis 推送的键空间通知
+ */
+public class KeyspaceInvalidationListenerTest {
+
+    @Test
+    public void testInvalidateAllLocalCaches() {
+        NearCache nearCache = new NearCache(100, EvictionPolicy.LRU);
+        KeyspaceInvalidationListener listener = new KeyspaceInvalidationListener();
+        listener.register(nearCache::invalidate);
+        nearCache.put("user:1", "near", 60_000L);
+        ConcurrentHashMapCacheUtils.setCache("user:1", "utils");
+        LocalCache.add("user:1", "local", 60);
+
+        listener.onMessage(keyspaceMessage(0, "user:1", "set"), null);
+
+        assertThat(nearCache.get("user:1")).isNull();
+        assertThat(ConcurrentHashMapCacheUtils.getCache("user:1")).isNull();
+        assertThat(LocalCache.get("user:1")).isNull();
+        assertThat(listener.getInvalidationCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testIgnoreOtherChannels() {
+        NearCache nearCache = new NearCache(100, EvictionPolicy.LRU);
+        KeyspaceInvalidationListener listener = new KeyspaceInvalidationListener();
+        listener.register(nearCache::invalidate);
+        nearCache.put("user:2", "near", 60_000L);
+
+        listener.onMessage(new DefaultMessage("__keyevent@0__:set".getBytes(StandardCharsets.UTF_8),
+                "user:2".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(nearCache.get("user:2")).isEqualTo("near");
+        assertThat(listener.getInvalidationCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testParseKey() {
+        assertThat(KeyspaceInvalidationListener.parseKey("__keyspace@0__:a")).isEqualTo("a");
+        assertThat(KeyspaceInvalidationListener.parseKey("__keyspace@15__:a__:b")).isEqualTo("a__:b");
+        assertThat(KeyspaceInvalidationListener.parseKey("other")).isNull();
+    }
+
+    /**
+     * 失效与回填并发时撤销回填
+     */
+    @Test
+    public void testRefillAfterInvalidationIsDiscarded() {
+        NearCache nearCache = new NearCache(100, EvictionPolicy.LRU);
+        long stamp = nearCache.stamp("user:3");
+        long otherStamp = nearCache.stamp("user:4");
+        nearCache.invalidate("user:3");
+
+        nearCache.putIfNotInvalidated("user:3", "stale", 60_000L, stamp);
+        nearCache.putIfNotInvalidated("user:4", "fresh", 60_000L, otherStamp);
+
+        assertThat(nearCache.get("user:3")).isNull();
+        // 其它 key 的失效不影响回填
+        assertThat(nearCache.get("user:4")).isEqualTo("fresh");
+    }
+
+    /**
+     * 订阅断开或重建时清空所有本地缓存
+     */
+    @Test
+    public void testResetClearsAllLocalCaches() {
+        NearCache nearCache = new NearCache(100, EvictionPolicy.LRU);
+        KeyspaceInvalidationListener listener = new KeyspaceInvalidationListener();
+        listener.registerReset(nearCache::invalidateAll);
+        nearCache.put("user:5", "near", 60_000L);
+        LocalCache.add("user:5", "local", 60);
+        long stamp = nearCache.stamp("user:6");
+
+        listener.reset("subscription lost");
+
+        assertThat(nearCache.get("user:5")).isNull();
+        assertThat(LocalCache.get("user:5")).isNull();
+        nearCache.putIfNotInvalidated("user:6", "stale", 60_000L, stamp);
+        assertThat(nearCache.get("user:6")).isNull();
+        assertThat(listener.getResetCount()).isEqualTo(1);
+    }
+
+    /**
+     * 只有订阅自己的事件总线上的连接事件才清空，共用事件总线上其它连接打开不影响一级缓存
+     */
+    @Test
+    public void testUnrelatedConnectionDoesNotReset() throws InterruptedException {
+        RedisURI uri = RedisURI.create(System.getProperty("spring.redis.host", "127.0.0.1"), 6379);
+        ClientResources sharedResources = DefaultClientResources.create();
+        ClientResources subscriptionResources = DefaultClientResources.create();
+        RedisClient sharedClient = RedisClient.create(sharedResources, uri);
+        RedisClient subscriptionClient = RedisClient.create(subscriptionResources, uri);
+        try {
+            NearCache nearCache = new NearCache(100, EvictionPolicy.LRU);
+            KeyspaceInvalidationListener listener = new KeyspaceInvalidationListener();
+            listener.registerReset(nearCache::invalidateAll);
+            listener.resetOnConnectionEvents(subscriptionResources.eventBus());
+            nearCache.put("user:7", "near", 60_000L);
+
+            StatefulRedisConnection<String, String> connection = sharedClient.connect();
+            connection.sync().ping();
+            connection.close();
+            TimeUnit.MILLISECONDS.sleep(200);
+
+            assertThat(nearCache.get("user:7")).isEqualTo("near");
+            assertThat(listener.getResetCount()).isEqualTo(0);
+
+            StatefulRedisPubSubConnection<String, String> subscription = subscriptionClient.connectPubSub();
+            for (int i = 0; i < 50 && listener.getResetCount() == 0; i++) {
+                TimeUnit.MILLISECONDS.sleep(20);
+            }
+            subscription.close();
+
+            assertThat(listener.getResetCount()).isGreaterThan(0);
+            assertThat(nearCache.get("user:7")).isNull();
+        } finally {
+            sharedClient.shutdown();
+            subscriptionClient.shutdown();
+            sharedResources.shutdown();
+            subscriptionResources.shutdown();
+        }
+    }
+
+    private static DefaultMessage keyspaceMessage(int db, String key, String event) {
+        String channel = "__keyspace@" + db + "__:" + key;
+        return new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8), event.getBytes(StandardCharsets.UTF_8));
+    }
+}
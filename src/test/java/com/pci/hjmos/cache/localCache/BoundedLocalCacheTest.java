@@ -0,0 +1,178 @@
+package com.pci.hjmos.cache.localCache;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BoundedLocalCacheTest {
+
+    private static final long NOW = System.currentTimeMillis();
+
+    /**
+     * 读命中会刷新访问顺序，超出容量时淘汰最久未使用的缓存
+     */
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        BoundedLocalCache cache = new BoundedLocalCache(3);
+        cache.put("a", 1, -1L, NOW);
+        cache.put("b", 2, -1L, NOW);
+        cache.put("c", 3, -1L, NOW);
+        assertThat(cache.get("a", NOW)).isEqualTo(1);
+
+        cache.put("d", 4, -1L, NOW);
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.containsKey("b", NOW)).isFalse();
+        assertThat(cache.containsKey("a", NOW)).isTrue();
+        assertThat(cache.containsKey("d", NOW)).isTrue();
+    }
+
+    /**
+     * 覆盖写不会在访问顺序链表中留下旧节点
+     */
+    @Test
+    public void testOverwriteKeepsSingleNode() {
+        BoundedLocalCache cache = new BoundedLocalCache(2);
+        cache.put("a", 1, -1L, NOW);
+        cache.put("a", 2, -1L, NOW);
+        cache.put("b", 3, -1L, NOW);
+        cache.put("c", 4, -1L, NOW);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("a", NOW)).isNull();
+        assertThat(cache.get("c", NOW)).isEqualTo(4);
+    }
+
+    @Test
+    public void testExpiredEntryIsNotReturned() {
+        BoundedLocalCache cache = new BoundedLocalCache(10);
+        cache.put("a", 1, NOW - 1, NOW);
+        cache.put("b", 2, NOW + 1, NOW);
+
+        assertThat(cache.get("a", NOW)).isNull();
+        assertThat(cache.containsKey("a", NOW)).isFalse();
+        assertThat(cache.get("b", NOW)).isEqualTo(2);
+        // 读路径不删除过期缓存，两个都由时间轮回收
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.expire(NOW + 2_000)).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    /**
+     * 时间轮推进到过期时刻后回收缓存，跨层的缓存逐级下沉后按时回收
+     */
+    @Test
+    public void testExpireByTimerWheel() {
+        BoundedLocalCache cache = new BoundedLocalCache(10);
+        long oneHour = 60 * 60 * 1000L;
+        cache.put("second", 1, NOW + 500, NOW);
+        cache.put("minute", 2, NOW + 90 * 1000L, NOW);
+        cache.put("hour", 3, NOW + oneHour, NOW);
+        cache.put("week", 4, NOW + 7 * 24 * oneHour, NOW);
+        cache.put("forever", 5, -1L, NOW);
+
+        assertThat(cache.expire(NOW + 2_000)).isEqualTo(1);
+        assertThat(cache.expire(NOW + 60_000)).isEqualTo(0);
+        assertThat(cache.expire(NOW + 95_000)).isEqualTo(1);
+        assertThat(cache.expire(NOW + oneHour - 5_000)).isEqualTo(0);
+        assertThat(cache.expire(NOW + oneHour + 2_000)).isEqualTo(1);
+        assertThat(cache.expire(NOW + 7 * 24 * oneHour + 2_000)).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.containsKey("forever", NOW)).isTrue();
+    }
+
+    /**
+     * 覆盖写会取消旧值的过期调度
+     */
+    @Test
+    public void testOverwriteReschedulesExpiry() {
+        BoundedLocalCache cache = new BoundedLocalCache(10);
+        cache.put("a", 1, NOW + 500, NOW);
+        cache.put("a", 2, NOW + 10_000, NOW);
+
+        assertThat(cache.expire(NOW + 2_000)).isEqualTo(0);
+        assertThat(cache.get("a", NOW + 2_000)).isEqualTo(2);
+        assertThat(cache.expire(NOW + 12_000)).isEqualTo(1);
+    }
+
+    /**
+     * 超过最大权重时按最近最久未使用淘汰，个数与权重同步增减
+     */
+    @Test
+    public void testEvictByWeight() {
+        BoundedLocalCache cache = new BoundedLocalCache(100);
+        cache.setCapacity(100, 10, (key, value) -> (Integer) value);
+        cache.put("a", 4, -1L, NOW);
+        cache.put("b", 4, -1L, NOW);
+        cache.put("a", 2, -1L, NOW);
+        assertThat(cache.weightedSize()).isEqualTo(6);
+
+        cache.put("c", 5, -1L, NOW);
+
+        assertThat(cache.containsKey("b", NOW)).isFalse();
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.weightedSize()).isEqualTo(7);
+
+        cache.remove("a");
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.weightedSize()).isEqualTo(5);
+    }
+
+    /**
+     * LFU 下访问频率低的新缓存不会挤掉热点缓存，频率足够高后才被准入
+     */
+    @Test
+    public void testLfuRejectsColdCandidate() {
+        BoundedLocalCache cache = new BoundedLocalCache(2, EvictionPolicy.LFU);
+        cache.put("a", 1, -1L, NOW);
+        cache.put("b", 2, -1L, NOW);
+        for (int i = 0; i < 3; i++) {
+            cache.get("a", NOW);
+            cache.get("b", NOW);
+        }
+
+        cache.put("c", 3, -1L, NOW);
+        assertThat(cache.containsKey("c", NOW)).isFalse();
+        assertThat(cache.containsKey("a", NOW)).isTrue();
+        assertThat(cache.containsKey("b", NOW)).isTrue();
+
+        for (int i = 0; i < 5; i++) {
+            cache.put("c", 3, -1L, NOW);
+        }
+        assertThat(cache.containsKey("c", NOW)).isTrue();
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    /**
+     * 多线程读写后容量不超过上限
+     */
+    @Test
+    public void testConcurrentAccessStaysBounded() throws InterruptedException {
+        BoundedLocalCache cache = new BoundedLocalCache(100);
+        int threads = 8;
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int j = 0; j < 20_000; j++) {
+                    String key = "key" + random.nextInt(500);
+                    if (random.nextInt(4) == 0) {
+                        cache.put(key, j, -1L, NOW);
+                    } else {
+                        cache.get(key, NOW);
+                    }
+                }
+                latch.countDown();
+            }).start();
+        }
+        latch.await();
+
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+        cache.clear();
+        assertThat(cache.size()).isEqualTo(0);
+        assertThat(cache.weightedSize()).isEqualTo(0);
+    }
+}
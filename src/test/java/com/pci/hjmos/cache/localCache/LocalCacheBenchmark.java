@@ -0,0 +1,127 @@
+package com.pci.hjmos.cache.localCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地缓存多线程读写性能对比：LocalCache.LRUMap 与 BoundedLocalCache（LRU / LFU）
+ * 运行方式：执行 main 方法，或 java -cp ... org.openjdk.jmh.Main LocalCacheBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class LocalCacheBenchmark {
+
+    private static final int SIZE = 1 << 14;
+    private static final int MASK = SIZE - 1;
+
+    @Param({"LRUMap", "LRU", "LFU"})
+    String engine;
+
+    private String[] keys;
+    private Cache cache;
+
+    @Setup
+    public void setup() {
+        keys = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            keys[i] = "key" + i;
+        }
+        cache = "LRUMap".equals(engine) ? new LRUMapCache() : new BoundedCache(EvictionPolicy.valueOf(engine));
+        for (String key : keys) {
+            cache.put(key, key);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int index = ThreadLocalRandom.current().nextInt();
+    }
+
+    /**
+     * 全部读命中
+     */
+    @Benchmark
+    public Object read(ThreadState state) {
+        return cache.get(keys[state.index++ & MASK]);
+    }
+
+    /**
+     * 读写比例 7:1
+     */
+    @Benchmark
+    public Object readWrite(ThreadState state) {
+        int index = state.index++;
+        String key = keys[index & MASK];
+        if ((index & 7) == 0) {
+            cache.put(key, key);
+            return key;
+        }
+        return cache.get(key);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LocalCacheBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private interface Cache {
+        Object get(String key);
+
+        void put(String key, Object value);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static final class LRUMapCache implements Cache {
+        private final LocalCache.LRUMap<String, Object> map = new LocalCache.LRUMap<>();
+
+        @Override
+        public Object get(String key) {
+            return map.get(key);
+        }
+
+        @Override
+        public void put(String key, Object value) {
+            map.put(key, value);
+        }
+    }
+
+    private static final class BoundedCache implements Cache {
+        private final BoundedLocalCache cache;
+
+        BoundedCache(EvictionPolicy evictionPolicy) {
+            cache = new BoundedLocalCache(SIZE, evictionPolicy);
+        }
+
+        @Override
+        public Object get(String key) {
+            return cache.get(key, 0L);
+        }
+
+        @Override
+        public void put(String key, Object value) {
+            cache.put(key, value, -1L, 0L);
+        }
+    }
+}
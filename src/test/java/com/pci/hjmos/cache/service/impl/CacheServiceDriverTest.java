@@ -0,0 +1,393 @@
+package com.pci.hjmos.cache.service.impl;
+
+import com.pci.hjmos.cache.config.CacheProperties;
+import com.pci.hjmos.cache.config.DefaultSerializer;
+import com.pci.hjmos.cache.listener.LoadCompletionListener;
+import com.pci.hjmos.cache.service.CacheService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 同一组 CacheService 用例分别在 Lettuce 和 Jedis 连接上执行，需要 spring.redis.host（默认 127.0.0.1）上的单机 Redis，连不上时跳过
+ */
+@RunWith(Parameterized.class)
+public class CacheServiceDriverTest {
+
+    private static final String HOST = System.getProperty("spring.redis.host", "127.0.0.1");
+    private static final int PORT = Integer.getInteger("spring.redis.port", 6379);
+    private static final String PREFIX = "driver:test:";
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> drivers() {
+        return Arrays.asList(new Object[][]{{"lettuce"}, {"jedis"}});
+    }
+
+    @Parameterized.Parameter
+    public String driver;
+
+    private RedisConnectionFactory factory;
+    private RedisDatabaseRouter router;
+    private RedisTemplate<String, Object> redisTemplate;
+    private RedisMessageListenerContainer listenerContainer;
+    private LoadCompletionListener loadCompletionListener;
+    private RefreshAheadExecutor refreshAheadExecutor;
+    private CacheService cacheService;
+
+    @BeforeClass
+    public static void assumeRedisAvailable() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(HOST, PORT), 200);
+        } catch (IOException e) {
+            Assume.assumeNoException("redis is not available at " + HOST + ":" + PORT, e);
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(HOST, PORT);
+        factory = "jedis".equals(driver) ? new JedisConnectionFactory(configuration) : new LettuceConnectionFactory(configuration);
+        ((InitializingBean) factory).afterPropertiesSet();
+
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(factory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setHashKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new DefaultSerializer());
+        template.setHashValueSerializer(new DefaultSerializer());
+        template.afterPropertiesSet();
+        redisTemplate = template;
+
+        ClusterBatchExecutor clusterBatchExecutor = new ClusterBatchExecutor();
+        clusterBatchExecutor.redisTemplate = template;
+        clusterBatchExecutor.init();
+        router = new RedisDatabaseRouter();
+        router.redisTemplate = template;
+
+        loadCompletionListener = new LoadCompletionListener(template);
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(factory);
+        listenerContainer.addMessageListener(loadCompletionListener, new PatternTopic(LoadCompletionListener.CHANNEL_PATTERN));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.getLoader().setMaxWait(Duration.ofSeconds(1));
+        refreshAheadExecutor = new RefreshAheadExecutor();
+        refreshAheadExecutor.cacheProperties = cacheProperties;
+        refreshAheadExecutor.init();
+
+        ExpiryPolicy expiryPolicy = new ExpiryPolicy();
+        expiryPolicy.cacheProperties = cacheProperties;
+        expiryPolicy.init();
+
+        CacheServiceImpl service = new CacheServiceImpl();
+        service.redisTemplate = template;
+        service.cacheProperties = cacheProperties;
+        service.clusterBatchExecutor = clusterBatchExecutor;
+        service.databaseRouter = router;
+        service.driverCommands = DriverCommands.forFactory(factory);
+        service.loadCompletionListener = loadCompletionListener;
+        service.refreshAheadExecutor = refreshAheadExecutor;
+        service.expiryPolicy = expiryPolicy;
+        cacheService = service;
+        cacheService.deleteByPattern(PREFIX + "*", 100);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        cacheService.deleteByPattern(PREFIX + "*", 100);
+        refreshAheadExecutor.destroy();
+        listenerContainer.destroy();
+        router.destroy();
+        ((DisposableBean) factory).destroy();
+    }
+
+    @Test
+    public void testString() {
+        String key = PREFIX + "string";
+        cacheService.set(key, "value");
+        Assert.assertEquals("value", cacheService.get(key));
+        Assert.assertTrue(cacheService.existsKey(key));
+
+        cacheService.set(key, "expire", 100L);
+        Assert.assertEquals("expire", cacheService.get(key));
+
+        Map<String, Object> map = new HashMap<>();
+        map.put(PREFIX + "m1", "v1");
+        map.put(PREFIX + "m2", "v2");
+        cacheService.multiSet(map);
+        Assert.assertEquals(Arrays.asList("v1", "v2", null),
+                cacheService.multiGet(Arrays.asList(PREFIX + "m1", PREFIX + "m2", PREFIX + "none")));
+
+        Assert.assertTrue(cacheService.delete(key));
+        Assert.assertFalse(cacheService.existsKey(key));
+        Assert.assertEquals(Long.valueOf(2), cacheService.batchDelete(Arrays.asList(PREFIX + "m1", PREFIX + "m2")));
+    }
+
+    /**
+     * 过期时间不大于 0 时与 SET 后 EXPIRE 0 一样删除 key，不发送会被拒绝的 SETEX 0
+     */
+    @Test
+    public void testSetWithNonPositiveExpire() {
+        String key = PREFIX + "expired";
+        cacheService.set(key, "value");
+        cacheService.set(key, "zero", 0L);
+        Assert.assertFalse(cacheService.existsKey(key));
+
+        cacheService.set(key, "value");
+        cacheService.set(key, "negative", -1L);
+        Assert.assertFalse(cacheService.existsKey(key));
+
+        cacheService.set(key, "value");
+        cacheService.pipeline(batch -> batch.set(key, "zero", 0L));
+        Assert.assertFalse(cacheService.existsKey(key));
+    }
+
+    @Test
+    public void testGetOrLoad() {
+        String key = PREFIX + "load";
+        Assert.assertEquals("loaded", cacheService.getOrLoad(key, 100L, () -> "loaded"));
+        Assert.assertEquals("loaded", cacheService.getOrLoad(key, 100L, () -> "reloaded"));
+        Assert.assertNull(cacheService.getOrLoad(PREFIX + "none", 100L, () -> null));
+        Assert.assertFalse(cacheService.existsKey(PREFIX + "none"));
+    }
+
+    /**
+     * 其它节点持有加载锁时，等待方在值写入并收到通知后立即返回，不调用自己的 loader
+     */
+    @Test
+    public void testGetOrLoadDistributedWakeUp() throws Exception {
+        String key = PREFIX + "distributed";
+        Assert.assertTrue(cacheService.setLock(key + ":lock", "other-node", 10000L));
+        // 等订阅生效
+        TimeUnit.MILLISECONDS.sleep(200);
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<Object> waiter = CompletableFuture.supplyAsync(() ->
+                cacheService.getOrLoadDistributed(key, 100L, () -> "local-" + loads.incrementAndGet()));
+        TimeUnit.MILLISECONDS.sleep(200);
+        long start = System.currentTimeMillis();
+        cacheService.set(key, "remote", 100L);
+        loadCompletionListener.publish(key);
+        Assert.assertEquals("remote", waiter.get(5, TimeUnit.SECONDS));
+        Assert.assertTrue(System.currentTimeMillis() - start < 500);
+        Assert.assertEquals(0, loads.get());
+        Assert.assertTrue(cacheService.releaseDistributedLock(key + ":lock", "other-node"));
+    }
+
+    /**
+     * 持有加载锁的节点宕机时，超过 max-wait 仍继续等待，锁的租期到期后自己加载
+     */
+    @Test
+    public void testGetOrLoadDistributedFallback() {
+        String key = PREFIX + "distributed:fallback";
+        Assert.assertTrue(cacheService.setLock(key + ":lock", "crashed-node", 1500L));
+        long start = System.currentTimeMillis();
+        Assert.assertEquals("local", cacheService.getOrLoadDistributed(key, 100L, () -> "local"));
+        Assert.assertTrue(System.currentTimeMillis() - start >= 1500);
+        Assert.assertEquals("local", cacheService.get(key));
+        cacheService.delete(key + ":lock");
+    }
+
+    /**
+     * 超过刷新时间后读取立即返回旧值，后台刷新一次
+     */
+    @Test
+    public void testGetOrRefresh() throws Exception {
+        String key = PREFIX + "refresh";
+        AtomicInteger loads = new AtomicInteger();
+        Assert.assertEquals("v1", cacheService.getOrRefresh(key, 60L, 100L, () -> "v" + loads.incrementAndGet()));
+        Assert.assertEquals("v1", cacheService.getOrRefresh(key, 60L, 100L, () -> "v" + loads.incrementAndGet()));
+        Assert.assertEquals(1, loads.get());
+
+        // 剩余存活时间少于 100 - 60 秒，相当于写入已超过 60 秒
+        cacheService.expireKey(key, 30L);
+        Assert.assertEquals("v1", cacheService.getOrRefresh(key, 60L, 100L, () -> "v" + loads.incrementAndGet()));
+        for (int i = 0; i < 10; i++) {
+            Assert.assertNotNull(cacheService.getOrRefresh(key, 60L, 100L, () -> "v" + loads.incrementAndGet()));
+        }
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!"v2".equals(cacheService.get(key)) && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        Assert.assertEquals("v2", cacheService.get(key));
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testHash() {
+        String key = PREFIX + "hash";
+        cacheService.hPut(key, "f1", "v1");
+        Map<String, Object> map = new HashMap<>();
+        map.put("f2", "v2");
+        map.put("f3", "v3");
+        cacheService.hMultiSet(key, map);
+        Assert.assertEquals("v1", cacheService.hGet(key, "f1"));
+        Assert.assertEquals(3, cacheService.hEntries(key).size());
+        try (Stream<Map.Entry<Object, Object>> entries = cacheService.hScan(key, 2)) {
+            Assert.assertEquals(3, entries.count());
+        }
+        cacheService.hRemove(key, "f1");
+        Assert.assertFalse(cacheService.hExists(key, "f1"));
+        Assert.assertTrue(cacheService.hExists(key, "f2"));
+    }
+
+    @Test
+    public void testList() {
+        String key = PREFIX + "list";
+        Assert.assertEquals(Long.valueOf(1), cacheService.lSet(key, "a"));
+        Assert.assertEquals(Long.valueOf(2), cacheService.lSet(key, "b", 100L));
+        Assert.assertTrue(redisTemplate.getExpire(key) > 0);
+        Assert.assertEquals(Long.valueOf(4), cacheService.lMultiSet(key, Arrays.asList("c", "d")));
+        Assert.assertEquals(Long.valueOf(2), cacheService.lMultiSet(key, Arrays.asList("x", "y"), true));
+        redisTemplate.persist(key);
+        Assert.assertEquals(Long.valueOf(3), cacheService.lMultiSet(key, Arrays.asList("x", "y", "z"), true, 100L));
+        Assert.assertTrue(redisTemplate.getExpire(key) > 0);
+        Assert.assertEquals(Arrays.asList("x", "y", "z"), cacheService.lGet(key));
+        Assert.assertEquals(Arrays.asList("y", "z"), cacheService.lGet(key, 1, -1));
+        try (Stream<Object> elements = cacheService.lScan(key, 2)) {
+            Assert.assertEquals(Arrays.asList("x", "y", "z"), elements.collect(Collectors.toList()));
+        }
+        Assert.assertEquals(Long.valueOf(1), cacheService.lRemove(key, "y"));
+
+        // 脚本里分批 RPUSH，超过 Lua unpack 上限的列表也能一次写入
+        List<Object> large = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            large.add("v" + i);
+        }
+        Assert.assertEquals(Long.valueOf(2500), cacheService.lMultiSet(key, large, true, 100L));
+        Assert.assertEquals(large, cacheService.lGet(key));
+        Assert.assertTrue(redisTemplate.getExpire(key) > 0);
+        // 过期时间不大于 0 时与 EXPIRE 0 一样删除
+        cacheService.lSet(key, "z", 0L);
+        Assert.assertFalse(cacheService.existsKey(key));
+    }
+
+    @Test
+    public void testSet() {
+        String key = PREFIX + "set";
+        Assert.assertEquals(Long.valueOf(3), cacheService.add(key, "a", "b", "c"));
+        Assert.assertTrue(cacheService.isMember(key, "a"));
+        Assert.assertEquals(Long.valueOf(1), cacheService.remove(key, "a"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("b", "c")), cacheService.members(key));
+        try (Stream<Object> members = cacheService.sScan(key, 1)) {
+            Assert.assertEquals(2, members.count());
+        }
+    }
+
+    @Test
+    public void testZSet() {
+        String key = PREFIX + "zset";
+        cacheService.zAdd(key, "a", 1);
+        Set<ZSetOperations.TypedTuple<Object>> tuples = new HashSet<>();
+        tuples.add(new DefaultTypedTuple<>("b", 2.0));
+        tuples.add(new DefaultTypedTuple<>("c", 3.0));
+        Assert.assertEquals(Long.valueOf(2), cacheService.batchAddZset(key, tuples));
+        Assert.assertEquals(Double.valueOf(5.0), cacheService.incrementScore(key, "a", 4));
+        Assert.assertEquals(Long.valueOf(2), cacheService.rank(key, "a"));
+        Assert.assertEquals(Long.valueOf(0), cacheService.reverseRank(key, "a"));
+        Assert.assertEquals(2, cacheService.range(key, 0, 1).size());
+        Assert.assertEquals(2, cacheService.rangeByScore(key, 2, 3).size());
+        try (Stream<ZSetOperations.TypedTuple<Object>> scanned = cacheService.zScan(key, 1)) {
+            Assert.assertEquals(3, scanned.count());
+        }
+        Assert.assertEquals(Long.valueOf(1), cacheService.removeZset(key, "b"));
+        cacheService.zremoveByScore(key, 0, 3);
+        Assert.assertEquals(1, cacheService.range(key, 0, -1).size());
+    }
+
+    @Test
+    public void testKeys() {
+        for (int i = 0; i < 20; i++) {
+            cacheService.set(PREFIX + "scan:" + i, "v" + i);
+        }
+        cacheService.expireKey(PREFIX + "scan:0", 100L);
+        try (Stream<String> keys = cacheService.scanKeys(PREFIX + "scan:*", 5)) {
+            Assert.assertEquals(20, keys.count());
+        }
+        Assert.assertEquals(20, cacheService.deleteByPattern(PREFIX + "scan:*", 5));
+    }
+
+    @Test
+    public void testPipeline() {
+        String key = PREFIX + "pipeline";
+        List<Object> results = cacheService.pipeline(batch -> batch
+                .set(key, "v")
+                .get(key)
+                .hPut(key + ":hash", "f", "v")
+                .hGet(key + ":hash", "f")
+                .delete(key));
+        Assert.assertEquals(5, results.size());
+        Assert.assertEquals("v", results.get(1));
+        Assert.assertEquals("v", results.get(3));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDatabase() {
+        String key = PREFIX + "database";
+        CacheService db1 = cacheService.forDatabase(1);
+        db1.set(key, "db1");
+        Assert.assertNull(cacheService.get(key));
+        Assert.assertEquals("db1", db1.get(key));
+        Assert.assertSame(db1, cacheService.forDatabase(1));
+        Assert.assertSame(db1, db1.forDatabase(1));
+        Assert.assertSame(cacheService, cacheService.forDatabase(0));
+        Assert.assertSame(cacheService, db1.forDatabase(0));
+        try {
+            cacheService.selectDatabase(1);
+            Assert.fail("selectDatabase should be rejected");
+        } catch (UnsupportedOperationException expected) {
+            // 不再切换单例的数据库
+        }
+        Assert.assertNull(cacheService.get(key));
+        Assert.assertTrue(db1.delete(key));
+    }
+
+    @Test
+    public void testLock() {
+        String key = PREFIX + "lock";
+        String requestId = UUID.randomUUID().toString();
+        Assert.assertTrue(cacheService.setLock(key, requestId, 10000L));
+        Assert.assertFalse(cacheService.setLock(key, 10000L));
+        Assert.assertFalse(cacheService.releaseDistributedLock(key, "other"));
+        Assert.assertTrue(cacheService.releaseDistributedLock(key, requestId));
+        Assert.assertTrue(cacheService.setLock(key, 10000L));
+    }
+}
@@ -0,0 +1,90 @@
+package com.pci.hjmos.cache.service.impl;
+
+import com.pci.hjmos.cache.config.CacheProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 熔断器在调用方线程上的额外开销：Redis 调用用直接返回的 Supplier 代替，只测熔断器本身
+ * direct 直接调用，breaker 经由关闭状态的熔断器调用；单线程，只看每次调用增加的耗时，不测多线程竞争
+ * 运行方式：执行 main 方法，或 java -cp ... org.openjdk.jmh.Main CircuitBreakerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class CircuitBreakerBenchmark {
+
+    private static final int SIZE = 1 << 10;
+    private static final int MASK = SIZE - 1;
+
+    @Param({"direct", "breaker"})
+    String mode;
+
+    private String[] keys;
+    private CircuitBreaker breaker;
+
+    @Setup
+    public void setup() {
+        keys = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            keys[i] = "key" + i;
+        }
+        CacheProperties cacheProperties = new CacheProperties();
+        // 只测关闭状态的开销，隔离舱不应成为瓶颈
+        cacheProperties.getBreaker().setMaxConcurrentCalls(1024);
+        breaker = new CircuitBreaker();
+        breaker.cacheProperties = cacheProperties;
+        breaker.init();
+    }
+
+    @TearDown
+    public void tearDown() {
+        breaker.destroy();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int index = ThreadLocalRandom.current().nextInt();
+    }
+
+    @Benchmark
+    public Object read(ThreadState state) {
+        String key = keys[state.index++ & MASK];
+        Supplier<Object> call = () -> key;
+        return "direct".equals(mode) ? call.get() : breaker.read(0, key, call);
+    }
+
+    @Benchmark
+    public Object write(ThreadState state) {
+        String key = keys[state.index++ & MASK];
+        Supplier<Object> call = () -> key;
+        return "direct".equals(mode) ? call.get() : breaker.write(0, call, Collections.singletonMap(key, key));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CircuitBreakerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,189 @@
+package com.pci.hjmos.cache.service.impl;
+
+import com.pci.hjmos.cache.config.CacheProperties;
+import com.pci.hjmos.cache.config.DegradedWritePolicy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class CircuitBreakerTest {
+
+    private static final Supplier<Object> FAILING = () -> {
+        throw new IllegalStateException("redis down");
+    };
+
+    private static CircuitBreaker breaker(DegradedWritePolicy writePolicy) {
+        CacheProperties cacheProperties = new CacheProperties();
+        CacheProperties.Breaker config = cacheProperties.getBreaker();
+        config.setMinimumCalls(4);
+        config.setWindowSize(10);
+        config.setWaitInOpen(Duration.ofMillis(100));
+        config.setHalfOpenCalls(2);
+        config.setWritePolicy(writePolicy);
+        CircuitBreaker breaker = new CircuitBreaker();
+        breaker.cacheProperties = cacheProperties;
+        breaker.init();
+        return breaker;
+    }
+
+    private static void trip(CircuitBreaker breaker) {
+        for (int i = 0; i < 4; i++) {
+            breaker.read(0, "other", FAILING);
+        }
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    /**
+     * 失败率达到阈值后打开，打开期间不再调用 Redis，读返回降级缓存中的旧值
+     */
+    @Test
+    public void testOpenServesStaleValue() {
+        CircuitBreaker breaker = breaker(DegradedWritePolicy.DROP);
+        Assert.assertEquals("v1", breaker.read(0, "key", () -> "v1"));
+        trip(breaker);
+
+        AtomicInteger calls = new AtomicInteger();
+        Object value = breaker.read(0, "key", () -> {
+            calls.incrementAndGet();
+            return "v2";
+        });
+        Assert.assertEquals("v1", value);
+        Assert.assertEquals(0, calls.get());
+        Assert.assertNull(breaker.read(0, "missing", () -> "v"));
+        List<Object> values = breaker.readAll(0, Arrays.asList("key", "missing"), () -> null);
+        Assert.assertEquals(Arrays.asList("v1", null), values);
+        Assert.assertTrue(breaker.getRejectedCount() >= 3);
+        // 其它库的降级缓存互不影响
+        Assert.assertNull(breaker.read(1, "key", () -> "v2"));
+    }
+
+    /**
+     * 降级时 DROP 丢弃写入，但本地降级缓存仍然更新
+     */
+    @Test
+    public void testDropWrite() {
+        CircuitBreaker breaker = breaker(DegradedWritePolicy.DROP);
+        trip(breaker);
+        AtomicInteger calls = new AtomicInteger();
+        Assert.assertNull(breaker.write(0, calls::incrementAndGet, Collections.singletonMap("key", "v")));
+        Assert.assertEquals(0, calls.get());
+        Assert.assertEquals(1L, breaker.getDroppedWriteCount());
+        Assert.assertEquals("v", breaker.read(0, "key", () -> "ignored"));
+
+        breaker.write(0, calls::incrementAndGet, Collections.singletonMap("key", null));
+        Assert.assertNull(breaker.read(0, "key", () -> "ignored"));
+    }
+
+    /**
+     * 半开试探全部成功后关闭，QUEUE 排队的写入在后台重放
+     */
+    @Test
+    public void testHalfOpenRecoveryReplaysWrites() throws Exception {
+        CircuitBreaker breaker = breaker(DegradedWritePolicy.QUEUE);
+        trip(breaker);
+        CountDownLatch replayed = new CountDownLatch(2);
+        breaker.write(0, () -> {
+            replayed.countDown();
+            return null;
+        }, Collections.singletonMap("a", "1"));
+        breaker.write(0, () -> {
+            replayed.countDown();
+            return null;
+        }, Collections.singletonMap("b", "2"));
+        Assert.assertEquals(2, breaker.getPendingWriteCount());
+
+        Thread.sleep(150);
+        Assert.assertEquals("x", breaker.read(0, "x", () -> "x"));
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        Assert.assertEquals("y", breaker.read(0, "y", () -> "y"));
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        Assert.assertTrue(replayed.await(1, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 恢复后重放还没结束时的新写入排在重放的旧写入之后，不会被旧值覆盖
+     */
+    @Test
+    public void testLiveWriteAfterRecoverySurvivesReplay() throws Exception {
+        CircuitBreaker breaker = breaker(DegradedWritePolicy.QUEUE);
+        Map<String, Object> redis = new ConcurrentHashMap<>();
+        trip(breaker);
+        CountDownLatch replaying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        breaker.write(0, () -> {
+            replaying.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return redis.put("key", "old");
+        }, Collections.singletonMap("key", "old"));
+
+        Thread.sleep(150);
+        breaker.read(0, "x", () -> "x");
+        breaker.read(0, "y", () -> "y");
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        Assert.assertTrue(replaying.await(1, TimeUnit.SECONDS));
+
+        breaker.write(0, () -> redis.put("key", "new"), Collections.singletonMap("key", "new"));
+        release.countDown();
+        for (int i = 0; i < 100 && breaker.getPendingWriteCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, breaker.getPendingWriteCount());
+        Assert.assertEquals("new", redis.get("key"));
+    }
+
+    /**
+     * 半开试探失败重新打开
+     */
+    @Test
+    public void testHalfOpenFailureReopens() throws Exception {
+        CircuitBreaker breaker = breaker(DegradedWritePolicy.DROP);
+        trip(breaker);
+        Thread.sleep(150);
+        breaker.read(0, "key", FAILING);
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    /**
+     * 隔离舱满时立即降级，不等待
+     */
+    @Test
+    public void testBulkheadRejects() throws Exception {
+        CircuitBreaker breaker = breaker(DegradedWritePolicy.DROP);
+        breaker.cacheProperties.getBreaker().setMaxConcurrentCalls(1);
+        breaker.init();
+        Assert.assertEquals("v1", breaker.read(0, "key", () -> "v1"));
+
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> breaker.read(0, "slow", () -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "slow";
+        }));
+        holder.start();
+        Assert.assertTrue(entered.await(1, TimeUnit.SECONDS));
+        Assert.assertEquals("v1", breaker.read(0, "key", () -> "v2"));
+        Assert.assertEquals(1L, breaker.getRejectedCount());
+        release.countDown();
+        holder.join();
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
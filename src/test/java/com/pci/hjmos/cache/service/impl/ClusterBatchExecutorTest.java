@@ -0,0 +1,42 @@
+package com.pci.hjmos.cache.service.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Collections;
+
+/**
+ * 集群判断只看连接工厂的配置，端口上没有 Redis 时也能初始化
+ */
+public class ClusterBatchExecutorTest {
+
+    @Test
+    public void testInitWithoutRedis() throws Exception {
+        LettuceConnectionFactory standalone = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", 1));
+        LettuceConnectionFactory cluster = new LettuceConnectionFactory(
+                new RedisClusterConfiguration(Collections.singletonList("127.0.0.1:1")));
+        standalone.afterPropertiesSet();
+        cluster.afterPropertiesSet();
+        try {
+            Assert.assertFalse(executor(standalone).isCluster());
+            Assert.assertTrue(executor(cluster).isCluster());
+        } finally {
+            standalone.destroy();
+            cluster.destroy();
+        }
+    }
+
+    private static ClusterBatchExecutor executor(LettuceConnectionFactory factory) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(factory);
+        template.afterPropertiesSet();
+        ClusterBatchExecutor executor = new ClusterBatchExecutor();
+        executor.redisTemplate = template;
+        executor.init();
+        return executor;
+    }
+}
@@ -0,0 +1,81 @@
+package com.pci.hjmos.cache.service.impl;
+
+import com.pci.hjmos.cache.config.CacheProperties;
+import com.pci.hjmos.cache.config.JitterType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public class ExpiryPolicyTest {
+
+    private static ExpiryPolicy policy(CacheProperties cacheProperties) {
+        ExpiryPolicy policy = new ExpiryPolicy();
+        policy.cacheProperties = cacheProperties;
+        policy.init();
+        return policy;
+    }
+
+    @Test
+    public void testNoneKeepsExpireTime() {
+        ExpiryPolicy policy = policy(new CacheProperties());
+        Assert.assertEquals(3600L, policy.expireSeconds("key", 3600L));
+        Assert.assertEquals(-1L, policy.expireSeconds("key", -1L));
+    }
+
+    /**
+     * 批量写入 10000 个 key，过期时刻分散在 5 分钟内，同一分钟过期的个数远小于总数
+     */
+    @Test
+    public void testUniformSpreadsBulkLoad() {
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.getExpiry().getJitter().setType(JitterType.UNIFORM);
+        cacheProperties.getExpiry().getJitter().setMax(Duration.ofMinutes(5));
+        ExpiryPolicy policy = policy(cacheProperties);
+
+        Set<Long> distinct = new HashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            long seconds = policy.expireSeconds("bulk:" + i, 3600L);
+            Assert.assertTrue(seconds >= 3600L && seconds <= 3900L);
+            distinct.add(seconds);
+        }
+        Assert.assertTrue(distinct.size() > 250);
+        Assert.assertTrue(policy.getExpiryHistogram().size() >= 5);
+        Assert.assertTrue(policy.getPeakExpiryCount() < 3000);
+        Assert.assertEquals(10000L, policy.getExpiryHistogram().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    /**
+     * 超出 24 小时统计窗口的只计总数，不占用直方图
+     */
+    @Test
+    public void testBeyondWindow() {
+        ExpiryPolicy policy = policy(new CacheProperties());
+        policy.expireSeconds("long", TimeUnit.DAYS.toSeconds(2));
+        policy.expireSeconds("short", 60L);
+        Assert.assertEquals(1L, policy.getBeyondWindowCount());
+        Assert.assertEquals(1L, policy.getExpiryHistogram().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    public void testPrefixRule() {
+        CacheProperties cacheProperties = new CacheProperties();
+        CacheProperties.Jitter percentage = new CacheProperties.Jitter();
+        percentage.setType(JitterType.PERCENTAGE);
+        percentage.setPercentage(0.5);
+        cacheProperties.getExpiry().getPrefixes().put("user:", percentage);
+        ExpiryPolicy policy = policy(cacheProperties);
+
+        Assert.assertEquals(100L, policy.expireSeconds("order:1", 100L));
+        Set<Long> distinct = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            long seconds = policy.expireSeconds("user:" + i, 100L);
+            Assert.assertTrue(seconds >= 100L && seconds <= 150L);
+            distinct.add(seconds);
+        }
+        Assert.assertTrue(distinct.size() > 40);
+    }
+}
@@ -0,0 +1,82 @@
+package com.pci.hjmos.cache.service.impl;
+
+import com.pci.hjmos.cache.config.CacheProperties;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用代理的 ValueOperations 模拟读取变慢，不需要 Redis
+ */
+public class GetCoalescerTest {
+
+    private final CountDownLatch slowEntered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private GetCoalescer coalescer;
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        if (coalescer != null) {
+            coalescer.destroy();
+        }
+    }
+
+    /**
+     * 只有一个定时线程时，一个前缀的批次读取阻塞也不推迟另一个前缀窗口的发送
+     */
+    @Test
+    public void testSlowBatchDoesNotDelayOtherWindow() throws Exception {
+        CacheProperties cacheProperties = new CacheProperties();
+        CacheProperties.Coalescing coalescing = cacheProperties.getCoalescing();
+        coalescing.setThreads(1);
+        CacheProperties.Window window = new CacheProperties.Window();
+        window.setMaxDelay(Duration.ofMillis(5));
+        coalescing.getPrefixes().put("slow:", window);
+        coalescing.getPrefixes().put("fast:", window);
+
+        coalescer = new GetCoalescer();
+        coalescer.redisTemplate = template();
+        coalescer.cacheProperties = cacheProperties;
+        coalescer.clusterBatchExecutor = new ClusterBatchExecutor();
+        coalescer.init();
+
+        CompletableFuture<Object> slow = CompletableFuture.supplyAsync(() -> coalescer.get("slow:1"));
+        Assert.assertTrue(slowEntered.await(1, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        Assert.assertEquals("fast:1", coalescer.get("fast:1"));
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+        Assert.assertFalse(slow.isDone());
+
+        release.countDown();
+        Assert.assertEquals("slow:1", slow.get(1, TimeUnit.SECONDS));
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisTemplate<String, Object> template() {
+        ValueOperations<String, Object> operations = (ValueOperations<String, Object>) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{ValueOperations.class}, (proxy, method, args) -> {
+                    String key = (String) args[0];
+                    if (key.startsWith("slow:")) {
+                        slowEntered.countDown();
+                        release.await(5, TimeUnit.SECONDS);
+                    }
+                    return key;
+                });
+        return new RedisTemplate<String, Object>() {
+            @Override
+            public ValueOperations<String, Object> opsForValue() {
+                return operations;
+            }
+        };
+    }
+}